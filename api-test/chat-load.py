@@ -0,0 +1,227 @@
+#!/usr/bin/env python3
+"""
+Load test: concurrent chat sessions plus CRUD traffic against the backend.
+
+Every chat holds its request open for the whole model round trip. With a fixed pool of
+platform worker threads, enough concurrent chats leave no worker for CRUD requests; with
+virtual threads (spring.threads.virtual.enabled=true) they should not interfere.
+
+To measure without a GPU, start a stand-in for Ollama that answers every chat after a delay,
+and point the backend at it:
+
+    python3 api-test/chat-load.py stub-ollama --port 11435 --delay 5
+    java -jar target/contact-app-backend-1.0.0.jar \
+        --spring.ai.ollama.base-url=http://localhost:11435 --spring.threads.virtual.enabled=false
+
+Then run the load (repeat with virtual threads enabled to compare):
+
+    python3 api-test/chat-load.py load --chats 300 --crud-clients 16 --duration 30
+
+With --capacity, the stub slows every generation down once more than that many run at once,
+as Ollama does. Comparing contacts.chat.max-in-flight at and far above that capacity shows
+the chat bulkhead: chats over the limit are turned away with 429/503 and the rest stay fast.
+"""
+import argparse
+import json
+import threading
+import time
+import urllib.error
+import urllib.request
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+
+def stub_ollama(port, delay, tool, tool_args, capacity):
+    words = ["Stub", " answer", " streamed", " one", " word", " at", " a", " time."]
+    active = [0]
+    active_lock = threading.Lock()
+
+    # Sleeps for `seconds` of generation; with a capacity, concurrent generations beyond it share
+    # the model and all slow down, like Ollama on a CPU
+    def generate(seconds):
+        if not capacity:
+            time.sleep(seconds)
+            return
+        step = 0.05
+        while seconds > 0:
+            time.sleep(step)
+            with active_lock:
+                seconds -= step * min(1.0, capacity / active[0])
+
+    class Generation:
+        def __enter__(self):
+            with active_lock:
+                active[0] += 1
+
+        def __exit__(self, *args):
+            with active_lock:
+                active[0] -= 1
+
+    def chunk(request, message, done):
+        return {
+            "model": request.get("model", "stub"),
+            "created_at": "2025-01-01T00:00:00Z",
+            "message": message,
+            "done_reason": "stop" if done else None,
+            "done": done,
+            "total_duration": int(delay * 1e9) if done else None,
+            "prompt_eval_count": 1,
+            "eval_count": 1,
+        }
+
+    class Handler(BaseHTTPRequestHandler):
+        protocol_version = "HTTP/1.1"
+
+        def do_POST(self):
+            body = self.read_body()
+            request = json.loads(body or b"{}")
+            messages = request.get("messages", [])
+            if tool and messages and messages[-1].get("role") == "user":
+                # First turn: ask for the tool; the follow-up request carries its result
+                message = {"role": "assistant", "content": "",
+                           "tool_calls": [{"function": {"name": tool, "arguments": tool_args}}]}
+                self.send_json(chunk(request, message, True))
+            elif request.get("stream"):
+                with Generation():
+                    self.stream(request)
+            else:
+                with Generation():
+                    generate(delay)
+                self.send_json(chunk(request, {"role": "assistant", "content": "".join(words)}, True))
+
+        def read_body(self):
+            if self.headers.get("Transfer-Encoding", "").lower() != "chunked":
+                return self.rfile.read(int(self.headers.get("Content-Length", 0)))
+            # The backend's non-streaming client sends the request body in chunks
+            body = b""
+            while True:
+                size = int(self.rfile.readline().split(b";")[0], 16)
+                body += self.rfile.read(size)
+                self.rfile.readline()
+                if size == 0:
+                    return body
+
+        def send_json(self, payload):
+            response = json.dumps(payload).encode()
+            self.send_response(200)
+            self.send_header("Content-Type", "application/json")
+            self.send_header("Content-Length", str(len(response)))
+            self.end_headers()
+            self.wfile.write(response)
+
+        # Newline-delimited JSON chunks, spreading the delay over the words like a generating model
+        def stream(self, request):
+            self.send_response(200)
+            self.send_header("Content-Type", "application/x-ndjson")
+            self.send_header("Transfer-Encoding", "chunked")
+            self.end_headers()
+            sent = 0
+            try:
+                for i, word in enumerate(words + [""]):
+                    generate(delay / (len(words) + 1))
+                    line = (json.dumps(chunk(request, {"role": "assistant", "content": word}, i == len(words))) + "\n").encode()
+                    self.wfile.write(b"%x\r\n%s\r\n" % (len(line), line))
+                    self.wfile.flush()
+                    sent += 1
+                self.wfile.write(b"0\r\n\r\n")
+            except (BrokenPipeError, ConnectionResetError):
+                print(f"Client disconnected after {sent} of {len(words) + 1} chunks", flush=True)
+
+        def log_message(self, *args):
+            pass
+
+    server = ThreadingHTTPServer(("127.0.0.1", port), Handler)
+    server.daemon_threads = True
+    server.request_queue_size = 1024
+    print(f"Stub Ollama on port {port}, answering after {delay}s"
+          + (f", {capacity} generations at full speed" if capacity else ""))
+    server.serve_forever()
+
+
+def percentile(values, p):
+    if not values:
+        return float("nan")
+    values = sorted(values)
+    return values[min(len(values) - 1, int(len(values) * p))]
+
+
+def load(base, chats, crud_clients, duration, timeout):
+    deadline = time.monotonic() + duration
+    lock = threading.Lock()
+    crud_latencies, crud_errors, chat_latencies, chat_errors = [], [0], [], [0]
+    rejected = {}
+
+    def request(url, data=None):
+        headers = {"Content-Type": "application/json"} if data else {}
+        req = urllib.request.Request(url, data=data, headers=headers)
+        with urllib.request.urlopen(req, timeout=timeout) as response:
+            response.read()
+
+    def run(url, data, latencies, errors):
+        while time.monotonic() < deadline:
+            started = time.monotonic()
+            try:
+                request(url, data)
+                with lock:
+                    latencies.append(time.monotonic() - started)
+            except urllib.error.HTTPError as e:
+                with lock:
+                    if e.code in (429, 503):
+                        # Turned away by the chat bulkhead; back off as told
+                        rejected[e.code] = rejected.get(e.code, 0) + 1
+                    else:
+                        errors[0] += 1
+                if e.code in (429, 503):
+                    time.sleep(min(float(e.headers.get("Retry-After", 1)), max(0.0, deadline - time.monotonic())))
+            except (urllib.error.URLError, OSError):
+                with lock:
+                    errors[0] += 1
+
+    prompt = json.dumps({"prompt": "How many contacts are there?"}).encode()
+    threads = [threading.Thread(target=run, args=(f"{base}/api/chat", prompt, chat_latencies, chat_errors))
+               for _ in range(chats)]
+    threads += [threading.Thread(target=run, args=(f"{base}/contacts?page=0&size=10", None, crud_latencies, crud_errors))
+                for _ in range(crud_clients)]
+    for t in threads:
+        t.daemon = True
+        t.start()
+    for t in threads:
+        t.join(timeout + duration)
+
+    def report(name, latencies, errors):
+        print(f"{name}: {len(latencies)} ok ({len(latencies) / duration:.1f}/s), {errors[0]} failed, "
+              f"p50 {percentile(latencies, 0.5) * 1000:.0f} ms, p99 {percentile(latencies, 0.99) * 1000:.0f} ms, "
+              f"max {max(latencies, default=float('nan')) * 1000:.0f} ms")
+
+    print(f"{chats} chat clients + {crud_clients} CRUD clients for {duration}s")
+    report("chat", chat_latencies, chat_errors)
+    report("crud", crud_latencies, crud_errors)
+    if rejected:
+        print("chat rejected: " + ", ".join(f"{count} x {code}" for code, count in sorted(rejected.items())))
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    commands = parser.add_subparsers(dest="command", required=True)
+    stub = commands.add_parser("stub-ollama", help="serve a stand-in Ollama chat API")
+    stub.add_argument("--port", type=int, default=11435)
+    stub.add_argument("--delay", type=float, default=5.0, help="seconds before each answer")
+    stub.add_argument("--capacity", type=int, default=0,
+                      help="generations served at full speed; more slow all of them down (default: unlimited)")
+    stub.add_argument("--tool", help="answer each new prompt by first calling this tool (e.g. getCurrentDate)")
+    stub.add_argument("--tool-args", type=json.loads, default={},
+                      help='JSON arguments of the tool call, e.g. \'{"page": 0, "size": 20}\'')
+    run = commands.add_parser("load", help="run concurrent chat and CRUD clients")
+    run.add_argument("--base", default="http://localhost:8080/api")
+    run.add_argument("--chats", type=int, default=300)
+    run.add_argument("--crud-clients", type=int, default=16)
+    run.add_argument("--duration", type=float, default=30.0)
+    run.add_argument("--timeout", type=float, default=60.0)
+    args = parser.parse_args()
+    if args.command == "stub-ollama":
+        stub_ollama(args.port, args.delay, args.tool, args.tool_args, args.capacity)
+    else:
+        load(args.base, args.chats, args.crud_clients, args.duration, args.timeout)
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,124 @@
+-- Search benchmark: the LIKE, trigram and full-text search queries on 1M synthetic contacts.
+-- Run it against a scratch database set up with the init-db scripts, not the app's database:
+--
+--   createdb search_bench
+--   for f in init-db/*.sql; do psql -d search_bench -f "$f"; done
+--   psql -d search_bench -f api-test/search-benchmark.sql
+--
+-- Seeding tops the table up to 1M rows (a few minutes, once); rerunning only times the queries.
+-- Each query is the SQL behind GET /contacts?search=<term>&mode=<mode>: the first page of 10,
+-- and with count=true (the default) the COUNT(*) for the total.
+
+INSERT INTO contacts (first_name, last_name, email, phone, company, job_title, city, state, country, notes)
+SELECT first_names[1 + i % array_length(first_names, 1)],
+       last_names[1 + (i / 7) % array_length(last_names, 1)],
+       'contact' || i || '@example.com',
+       '+1555' || lpad((i % 10000000)::text, 7, '0'),
+       companies[1 + (i / 3) % array_length(companies, 1)],
+       titles[1 + (i / 11) % array_length(titles, 1)],
+       cities[1 + (i / 13) % array_length(cities, 1)],
+       'CA',
+       'United States',
+       (SELECT string_agg(word, ' ')
+        FROM (SELECT words[1 + floor(random() * array_length(words, 1))::int] AS word
+              FROM generate_series(1, 4 + i % 9)) note)
+FROM generate_series((SELECT count(*) FROM contacts) + 1, 1000000) AS i,
+     (SELECT ARRAY['James', 'Mary', 'John', 'Patricia', 'Robert', 'Jennifer', 'Michael', 'Linda', 'William',
+                   'Elizabeth', 'David', 'Barbara', 'Richard', 'Susan', 'Joseph', 'Jessica', 'Thomas', 'Sarah',
+                   'Charles', 'Karen', 'Daniel', 'Nancy', 'Matthew', 'Lisa', 'Anthony', 'Betty', 'Mark', 'Margaret',
+                   'Donald', 'Sandra', 'Steven', 'Ashley', 'Paul', 'Kimberly', 'Andrew', 'Emily', 'Joshua', 'Donna',
+                   'Kenneth', 'Michelle', 'Kevin', 'Dorothy', 'Brian', 'Carol', 'George', 'Amanda', 'Edward',
+                   'Melissa', 'Ronald', 'Deborah'] AS first_names,
+             ARRAY['Smith', 'Johnson', 'Williams', 'Brown', 'Jones', 'Garcia', 'Miller', 'Davis', 'Rodriguez',
+                   'Martinez', 'Hernandez', 'Lopez', 'Gonzalez', 'Wilson', 'Anderson', 'Thomas', 'Taylor', 'Moore',
+                   'Jackson', 'Martin', 'Lee', 'Perez', 'Thompson', 'White', 'Harris', 'Sanchez', 'Clark', 'Ramirez',
+                   'Lewis', 'Robinson', 'Walker', 'Young', 'Allen', 'King', 'Wright', 'Scott', 'Torres', 'Nguyen',
+                   'Hill', 'Flores', 'Green', 'Adams', 'Nelson', 'Baker', 'Hall', 'Rivera', 'Campbell', 'Mitchell',
+                   'Carter', 'Roberts'] AS last_names,
+             ARRAY['Tech Corp', 'Cloud Systems', 'Data Insights', 'Legal Associates', 'Design Studios',
+                   'Green Energy', 'City Hospital', 'First Bank', 'Retail Group', 'Media House', 'Logistics Inc',
+                   'BioLabs', 'Edu Partners', 'Food Works', 'Build Co', 'Finance Group', 'Marketing Pro',
+                   'Startup Hub', 'Healthcare Plus', 'BuildTech Ltd'] AS companies,
+             ARRAY['Software Engineer', 'DevOps Engineer', 'Data Scientist', 'Product Manager', 'Sales Director',
+                   'Senior Attorney', 'Cloud Architect', 'UX Designer', 'Marketing Lead', 'Financial Analyst',
+                   'Site Reliability Engineer', 'Recruiter', 'CTO', 'Nurse Practitioner', 'Accountant',
+                   'Security Engineer', 'Teacher', 'Chef', 'Architect', 'Operations Director'] AS titles,
+             ARRAY['San Francisco', 'New York', 'Los Angeles', 'Chicago', 'Austin', 'Seattle', 'Denver',
+                   'Atlanta', 'Portland', 'San Diego', 'Boston', 'Miami', 'Dallas', 'Phoenix', 'Detroit'] AS cities,
+             ARRAY['met', 'at', 'the', 'conference', 'expert', 'in', 'kubernetes', 'infrastructure', 'automation',
+                   'machine', 'learning', 'models', 'contract', 'law', 'compliance', 'user', 'research',
+                   'prototyping', 'enterprise', 'sales', 'renewable', 'energy', 'projects', 'hospital',
+                   'operations', 'tax', 'planning', 'mobile', 'app', 'development', 'penetration', 'testing',
+                   'supply', 'chain', 'hiring', 'pipeline', 'menu', 'design', 'building', 'permits', 'quarterly',
+                   'reporting', 'on-call', 'rotation', 'data', 'pipelines', 'introduced', 'by', 'former',
+                   'colleague', 'follow', 'up', 'next', 'quarter', 'prefers', 'email', 'phone', 'calls',
+                   'speaker', 'mentor', 'investor', 'board', 'member', 'customer', 'partner', 'vendor',
+                   'security', 'audit', 'cloud', 'migration', 'analytics', 'dashboard', 'budget', 'review',
+                   'marketing', 'campaign', 'launch', 'strategy', 'agile', 'coach', 'certified', 'aws', 'azure',
+                   'gcp', 'postgres', 'java', 'python', 'golang', 'react', 'frontend', 'backend', 'team', 'lead',
+                   'founder', 'startup', 'seed', 'round', 'volunteer', 'marathon', 'runner'] AS words) AS data;
+
+ANALYZE contacts;
+
+-- Runs sql `runs` times (after one warm-up run) and reports the median and worst time
+CREATE OR REPLACE FUNCTION pg_temp.bench(sql text, runs int)
+    RETURNS TABLE (median_ms numeric, max_ms numeric) AS $$
+DECLARE
+    started timestamptz;
+    times numeric[] := '{}';
+BEGIN
+    EXECUTE sql;
+    FOR run IN 1..runs LOOP
+        started := clock_timestamp();
+        EXECUTE sql;
+        times := times || (extract(epoch FROM clock_timestamp() - started) * 1000)::numeric;
+    END LOOP;
+    RETURN QUERY SELECT round((SELECT percentile_cont(0.5) WITHIN GROUP (ORDER BY t) FROM unnest(times) t)::numeric, 1),
+                        round((SELECT max(t) FROM unnest(times) t), 1);
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION pg_temp.scalar(sql text) RETURNS bigint AS $$
+DECLARE
+    result bigint;
+BEGIN
+    EXECUTE sql INTO result;
+    RETURN result;
+END
+$$ LANGUAGE plpgsql;
+
+-- The generated SQL of ContactRepository.LIKE_PREDICATE, TRIGRAM_SEARCH and FULLTEXT_SEARCH,
+-- with the values ContactService binds for each term
+WITH terms(term, pattern, query, words) AS (VALUES
+        ('john', '%john%', 'john:*', 'john'),
+        ('mar', '%mar%', 'mar:*', 'mar'),
+        ('cloud eng', '%cloud eng%', 'cloud:* & eng:*', 'cloud | eng'),
+        ('kubernetes', '%kubernetes%', 'kubernetes:*', 'kubernetes'),
+        ('zzqx', '%zzqx%', 'zzqx:*', 'zzqx')),
+    queries(mode, term, page_sql, count_sql) AS (
+        SELECT 'like', term,
+               format('SELECT * FROM contacts c WHERE %s LIMIT 10', like_predicate),
+               format('SELECT count(*) FROM contacts c WHERE %s', like_predicate)
+        FROM terms, format('lower(c.first_name || '' '' || c.last_name) LIKE %1$L OR lower(c.email) LIKE %1$L '
+                           'OR lower(c.phone) LIKE %1$L OR lower(c.company) LIKE %1$L', pattern) AS like_predicate
+        UNION ALL
+        SELECT 'trigram', term,
+               format('SELECT * FROM contacts c WHERE c.search_text LIKE %L '
+                      'ORDER BY word_similarity(%L, c.search_text) DESC, c.first_name, c.last_name, c.id LIMIT 10',
+                      pattern, term),
+               format('SELECT count(*) FROM contacts c WHERE c.search_text LIKE %L', pattern)
+        FROM terms
+        UNION ALL
+        SELECT 'fulltext', term,
+               format('SELECT * FROM contacts c CROSS JOIN to_tsquery(''simple'', %L) q '
+                      'CROSS JOIN to_tsquery(''simple'', %L) w WHERE c.search_document @@ q '
+                      'ORDER BY ts_rank(c.search_document, q) + ts_rank(c.search_document, w) DESC, '
+                      'c.first_name, c.last_name, c.id LIMIT 10', query, words),
+               format('SELECT count(*) FROM contacts c WHERE c.search_document @@ to_tsquery(''simple'', %L)', query)
+        FROM terms)
+SELECT q.term, q.mode, page.median_ms AS page_ms, page.max_ms AS page_max_ms,
+       total.median_ms AS count_ms, pg_temp.scalar(q.count_sql) AS matches
+FROM queries q
+     CROSS JOIN LATERAL pg_temp.bench(q.page_sql, 5) page
+     CROSS JOIN LATERAL pg_temp.bench(q.count_sql, 5) total
+ORDER BY q.term, q.mode;
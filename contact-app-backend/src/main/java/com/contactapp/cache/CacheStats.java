@@ -0,0 +1,16 @@
+package com.contactapp.cache;
+
+/**
+ * Point-in-time counters for an {@link LruCache}. {@code evictions} counts entries dropped to
+ * stay within {@code maxSize}; expired and explicitly invalidated entries are counted separately.
+ */
+public record CacheStats(
+        String name,
+        int size,
+        int maxSize,
+        long hits,
+        long misses,
+        long evictions,
+        long expirations,
+        long invalidations,
+        double hitRate) {}
@@ -0,0 +1,159 @@
+package com.contactapp.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A small thread-safe, size-bounded cache with least-recently-used eviction and an optional
+ * time-to-live, counting hits, misses and evictions.
+ * <p>
+ * Loaders run outside the lock, so a slow load never blocks other readers. To keep a load
+ * that raced with an invalidation from caching stale data, a loaded value is only stored if
+ * no invalidation happened while it was being loaded.
+ */
+public class LruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtNanos) {}
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * @param ttl how long an entry stays valid after being stored; zero or {@code null} for no expiry
+     */
+    public LruCache(String name, int maxSize, Duration ttl) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache " + name + " needs a max size of at least one");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl == null || ttl.isZero() || ttl.isNegative() ? 0 : ttl.toNanos();
+    }
+
+    /** Returns the cached value, or {@code null} if absent or expired. Counts a hit or miss. */
+    public synchronized V getIfPresent(K key) {
+        V value = lookup(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value, loading and storing it on a miss. A {@code null} result from
+     * {@code loader} is returned but not cached; exceptions propagate and nothing is cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long invalidationsBefore;
+        synchronized (this) {
+            V value = lookup(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+            invalidationsBefore = invalidations;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            storeIfNotInvalidatedSince(Map.of(key, loaded), invalidationsBefore);
+        }
+        return loaded;
+    }
+
+    /**
+     * Bulk variant of {@link #get}: returns the values for {@code keys} that are cached or
+     * that {@code loader} finds, calling {@code loader} once with just the missing keys.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long invalidationsBefore;
+        synchronized (this) {
+            for (K key : keys) {
+                V value = lookup(key);
+                if (value != null) {
+                    hits++;
+                    result.put(key, value);
+                } else if (missing.add(key)) {
+                    misses++;
+                }
+            }
+            invalidationsBefore = invalidations;
+        }
+        if (!missing.isEmpty()) {
+            Map<K, V> loaded = loader.apply(missing);
+            storeIfNotInvalidatedSince(loaded, invalidationsBefore);
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    public synchronized void put(K key, V value) {
+        store(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        invalidations++;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        invalidations++;
+    }
+
+    public synchronized CacheStats stats() {
+        long requests = hits + misses;
+        double hitRate = requests == 0 ? 0.0 : (double) hits / requests;
+        return new CacheStats(name, entries.size(), maxSize, hits, misses, evictions, expirations, invalidations,
+                hitRate);
+    }
+
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entry.expiresAtNanos() > 0) {
+            entries.remove(key);
+            expirations++;
+            return null;
+        }
+        return entry.value();
+    }
+
+    private synchronized void storeIfNotInvalidatedSince(Map<K, V> values, long invalidationsBefore) {
+        if (invalidations != invalidationsBefore) {
+            return;
+        }
+        values.forEach(this::store);
+    }
+
+    private void store(K key, V value) {
+        entries.put(key, new Entry<>(value, ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0));
+        for (Iterator<Entry<V>> it = entries.values().iterator(); entries.size() > maxSize; ) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+}
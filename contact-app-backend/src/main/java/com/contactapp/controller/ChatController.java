@@ -1,42 +1,230 @@
 package com.contactapp.controller;
+import com.contactapp.exception.ChatOverloadedException;
+import com.contactapp.service.ChatLimiter;
+import com.contactapp.service.ChatResponseCache;
+import com.contactapp.service.ChatSessions;
 import com.contactapp.tools.ContactTools;
 import com.contactapp.tools.DateTimeTools;
+import com.contactapp.tools.Tokens;
+import com.contactapp.tools.ToolProgress;
+import com.contactapp.tools.ToolUsage;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/")
 class ChatController {
+    // Also lets a disconnected client be noticed while the model is busy producing no output
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
     private final ChatClient chatClient;
+    private final ChatLimiter chatLimiter;
+    private final ChatResponseCache responseCache;
+    private final ChatSessions chatSessions;
+    private final int memoryToolResultBudget;
 
-    ChatController(ChatClient.Builder builder, ContactTools contactTools) {
+    ChatController(ChatClient.Builder builder, ContactTools contactTools, ToolUsage toolUsage,
+                   ChatLimiter chatLimiter, ChatResponseCache responseCache, ChatSessions chatSessions,
+                   @Value("${contacts.chat.memory.tool-result-budget:2000}") int memoryToolResultBudget) {
+        this.chatLimiter = chatLimiter;
+        this.responseCache = responseCache;
+        this.chatSessions = chatSessions;
+        this.memoryToolResultBudget = memoryToolResultBudget;
         this.chatClient = builder
                 .defaultSystem("""
                 You are a helpful assistant to invoke the Contact App.
                 You always respond based on the data you have from tools available to you.
                 If you don't know the answer, you will respond with "I don't know".
                 """)
-                .defaultTools(contactTools, new DateTimeTools())
+                // Outermost, so calls answered from session memory are not reported as tool runs
+                .defaultToolCallbacks(chatSessions.reusingResults(ToolProgress.reporting(toolUsage,
+                        ToolCallbacks.from(contactTools, new DateTimeTools()))))
                 .defaultAdvisors(new SimpleLoggerAdvisor())
                 .build();
     }
 
+    /**
+     * Answers a prompt. Passing the {@code sessionId} of an earlier answer continues that
+     * conversation: the model sees the latest turns and earlier tool results (see
+     * {@link ChatSessions}); without one, or once the session has expired, a new one starts.
+     */
     @PostMapping("/api/chat")
     Output chat(@RequestBody @Valid Input input) {
-        String response = chatClient
-                .prompt(input.prompt()).call().content();
-        return new Output(response);
+        // Taken before the chat runs, so an answer raced by a contact write is never served
+        ChatResponseCache.Key key = cacheKey(input);
+        String cached = key == null ? null : responseCache.getIfPresent(key);
+        if (cached != null) {
+            ChatSessions.Conversation conversation = chatSessions.open(input.sessionId());
+            chatSessions.recordTurn(conversation, input.prompt(), cached);
+            return new Output(cached, conversation.sessionId());
+        }
+        Set<String> toolsCalled = ConcurrentHashMap.newKeySet();
+        Consumer<ToolProgress.Event> toolProgress = event -> toolsCalled.add(event.tool());
+        ChatLimiter.Permit permit = chatLimiter.acquire();
+        try {
+            // Opened once admitted, so a burst of rejected chats cannot evict remembered sessions
+            ChatSessions.Conversation conversation = chatSessions.open(input.sessionId());
+            if (!conversation.turns().isEmpty()) {
+                key = null;
+            }
+            String response = prompt(input, conversation, toolProgress).call().content();
+            if (key != null) {
+                responseCache.put(key, response, toolsCalled);
+            }
+            chatSessions.recordTurn(conversation, input.prompt(), response);
+            return new Output(response, conversation.sessionId());
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Streams the answer as Server-Sent Events while it is generated: {@code token} events
+     * carry the text as it arrives, {@code tool} events report tool calls, and a final
+     * {@code done} (the whole answer, as from /api/chat) or {@code error} event ends the
+     * stream. A client disconnect cancels the chat: no further tokens are relayed and no
+     * further tool calls are made. A chat turned away by the {@link ChatLimiter} gets its
+     * 429/503 status with a single {@code error} event. A cached answer is sent as one
+     * {@code token} event followed by {@code done}. Sessions work as for /api/chat; the
+     * {@code done} event carries the session id.
+     */
+    @PostMapping(value = "/api/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    ResponseEntity<Flux<ServerSentEvent<Object>>> chatStream(@RequestBody @Valid Input input) {
+        ChatResponseCache.Key cacheKey = cacheKey(input);
+        String cached = cacheKey == null ? null : responseCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            ChatSessions.Conversation conversation = chatSessions.open(input.sessionId());
+            chatSessions.recordTurn(conversation, input.prompt(), cached);
+            return ResponseEntity.ok(Flux.just(event("token", new Token(cached)),
+                    event("done", new Output(cached, conversation.sessionId()))));
+        }
+        ChatLimiter.Permit permit;
+        try {
+            permit = chatLimiter.acquire();
+        } catch (ChatOverloadedException e) {
+            // Rejected before streaming starts: the 429/503 status and Retry-After, with the reason as an event
+            return ResponseEntity.status(e.getStatus())
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(Flux.just(event("error", new ErrorMessage(e.getMessage()))));
+        }
+        ChatSessions.Conversation conversation = chatSessions.open(input.sessionId());
+        ChatResponseCache.Key key = conversation.turns().isEmpty() ? cacheKey : null;
+        // Tools run on Reactor threads while streaming; their progress joins the stream through a sink
+        Sinks.Many<ServerSentEvent<Object>> toolEvents = Sinks.many().unicast().onBackpressureBuffer();
+        Set<String> toolsCalled = ConcurrentHashMap.newKeySet();
+        Consumer<ToolProgress.Event> toolProgress = event -> {
+            toolsCalled.add(event.tool());
+            toolEvents.tryEmitNext(event("tool", event));
+        };
+        StringBuilder answer = new StringBuilder();
+
+        Flux<ServerSentEvent<Object>> tokens = prompt(input, conversation, toolProgress)
+                .stream().content()
+                .doOnNext(answer::append)
+                .map(text -> event("token", new Token(text)))
+                .concatWith(Mono.fromSupplier(() -> {
+                    if (key != null) {
+                        responseCache.put(key, answer.toString(), toolsCalled);
+                    }
+                    chatSessions.recordTurn(conversation, input.prompt(), answer.toString());
+                    return event("done", new Output(answer.toString(), conversation.sessionId()));
+                }))
+                .onErrorResume(e -> Mono.just(event("error", new ErrorMessage(e.getMessage()))))
+                .doFinally(signal -> {
+                    permit.close();
+                    toolEvents.tryEmitComplete();
+                });
+        Flux<ServerSentEvent<Object>> heartbeat = Flux.interval(HEARTBEAT_INTERVAL)
+                .map(tick -> ServerSentEvent.builder().comment("keep-alive").build());
+
+        return ResponseEntity.ok(Flux.merge(tokens, toolEvents.asFlux(), heartbeat)
+                .takeUntil(event -> "done".equals(event.event()) || "error".equals(event.event())));
+    }
+
+    // A follow-up's answer depends on the conversation, so only opening prompts are cached
+    private ChatResponseCache.Key cacheKey(Input input) {
+        return chatSessions.hasTurns(input.sessionId()) ? null : responseCache.key(input.prompt());
     }
 
-    record Input(@NotBlank String prompt) {}
-    record Output(String content) {}
+    private ChatClient.ChatClientRequestSpec prompt(Input input, ChatSessions.Conversation conversation,
+                                                    Consumer<ToolProgress.Event> toolProgress) {
+        return chatClient.prompt()
+                .messages(memory(conversation))
+                .user(input.prompt())
+                .toolContext(Map.of(ToolProgress.LISTENER_KEY, toolProgress,
+                        ChatSessions.CONVERSATION_KEY, conversation));
+    }
+
+    /**
+     * The conversation so far: the latest tool results that fit in the memory budget, so the
+     * model can answer a follow-up without calling the tools again, then the remembered turns.
+     */
+    private List<Message> memory(ChatSessions.Conversation conversation) {
+        List<Message> messages = new ArrayList<>();
+        StringBuilder results = new StringBuilder();
+        int budget = memoryToolResultBudget;
+        for (ChatSessions.ToolResult result : conversation.toolResults()) {
+            String line = result.tool() + "(" + result.arguments() + ") returned: " + result.result() + "\n";
+            budget -= Tokens.estimate(line);
+            if (budget < 0) {
+                break;
+            }
+            results.append(line);
+        }
+        if (!results.isEmpty()) {
+            messages.add(new SystemMessage("""
+                    Results of tool calls earlier in this conversation, still current. Use them \
+                    instead of calling the same tool again:
+                    """ + results));
+        }
+        for (ChatSessions.Turn turn : conversation.turns()) {
+            messages.add(new UserMessage(turn.prompt()));
+            messages.add(new AssistantMessage(turn.answer()));
+        }
+        return messages;
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+
+    record Input(@NotBlank String prompt, String sessionId) {
+        Input(String prompt) {
+            this(prompt, null);
+        }
+    }
+    record Output(String content, String sessionId) {}
+    // Text goes out as JSON: a raw SSE data line would lose a token's leading space
+    record Token(String text) {}
+    record ErrorMessage(String message) {}
 
-}
\ No newline at end of file
+}
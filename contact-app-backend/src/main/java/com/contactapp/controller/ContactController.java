@@ -1,15 +1,42 @@
 package com.contactapp.controller;
 
+import com.contactapp.dto.BulkUpsertResult;
+import com.contactapp.dto.ContactBatch;
 import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.ContactSuggestion;
+import com.contactapp.dto.CursorPage;
+import com.contactapp.dto.ImportJobStatus;
+import com.contactapp.dto.SemanticSearchResult;
+import com.contactapp.dto.SliceResponse;
+import com.contactapp.service.ContactFileFormat;
+import com.contactapp.service.ContactImportService;
 import com.contactapp.service.ContactService;
+import com.contactapp.service.ContactUpsertService;
+import com.contactapp.service.PhotoStorage;
+import com.contactapp.service.PhotoStorage.PhotoLocation;
+import com.contactapp.service.PhotoThumbnails;
+import com.contactapp.service.SearchMode;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/contacts")
@@ -17,10 +44,20 @@ import java.io.IOException;
 public class ContactController {
 
     private final ContactService contactService;
+    private final ContactImportService contactImportService;
+    private final ContactUpsertService contactUpsertService;
+    private final PhotoStorage photoStorage;
+    private final PhotoThumbnails photoThumbnails;
 
     // Constructor injection (replacing Lombok @RequiredArgsConstructor)
-    public ContactController(ContactService contactService) {
+    public ContactController(ContactService contactService, ContactImportService contactImportService,
+                             ContactUpsertService contactUpsertService, PhotoStorage photoStorage,
+                             PhotoThumbnails photoThumbnails) {
         this.contactService = contactService;
+        this.contactImportService = contactImportService;
+        this.contactUpsertService = contactUpsertService;
+        this.photoStorage = photoStorage;
+        this.photoThumbnails = photoThumbnails;
     }
 
     @PostMapping
@@ -31,17 +68,103 @@ public class ContactController {
         return new ResponseEntity<>(createdContact, HttpStatus.CREATED);
     }
 
+    /**
+     * Lists contacts. Supplying {@code cursor} (empty for the first page) switches the
+     * unfiltered listing to keyset pagination and returns a {@link CursorPage}. With
+     * {@code count=false} a {@link SliceResponse} is returned and no COUNT(*) is run;
+     * otherwise page/size paging with exact totals is used. {@code mode} ({@code like},
+     * {@code trigram} or {@code fulltext}) picks how {@code search} matches, overriding
+     * {@code contacts.search.mode}.
+     */
     @GetMapping
-    public ResponseEntity<Page<ContactDTO>> getAllContacts(
+    public ResponseEntity<?> getAllContacts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String search) {
-        Page<ContactDTO> contacts;
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
         if (search != null && !search.isEmpty()) {
-            contacts = contactService.searchContacts(search, page, size);
-        } else {
-            contacts = contactService.getAllContacts(page, size);
+            SearchMode searchMode = mode == null ? null : SearchMode.from(mode);
+            return count
+                    ? new ResponseEntity<>(contactService.searchContacts(search, searchMode, page, size), HttpStatus.OK)
+                    : new ResponseEntity<>(contactService.searchContactsSlice(search, searchMode, page, size),
+                            HttpStatus.OK);
         }
+        if (cursor != null) {
+            CursorPage<ContactDTO> contacts = contactService.getContactsAfter(cursor, size);
+            return new ResponseEntity<>(contacts, HttpStatus.OK);
+        }
+        if (!count) {
+            return new ResponseEntity<>(contactService.getAllContactsSlice(page, size), HttpStatus.OK);
+        }
+        Page<ContactDTO> contacts = contactService.getAllContacts(page, size);
+        return new ResponseEntity<>(contacts, HttpStatus.OK);
+    }
+
+    /**
+     * Streams the full address book as NDJSON (default) or CSV without paging.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportContacts(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ContactFileFormat fileFormat = ContactFileFormat.from(format);
+        StreamingResponseBody body = out -> contactService.exportContacts(fileFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fileFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"contacts." + fileFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Queues a bulk import of a raw CSV ({@code text/csv}) or NDJSON ({@code application/x-ndjson})
+     * request body. Poll the returned Location for progress.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportJobStatus> importContacts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ImportJobStatus job = contactImportService.submit(ContactFileFormat.fromContentType(contentType), body);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .path("/{jobId}").buildAndExpand(job.id()).toUri())
+                .body(job);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobStatus> getImportStatus(@PathVariable String jobId) {
+        return contactImportService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Creates or updates contacts keyed by email from a JSON array, reporting per-row outcomes.
+     * Rows whose content already matches the stored contact are left untouched.
+     */
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkUpsertResult> upsertContacts(@RequestBody List<ContactDTO> contacts) {
+        BulkUpsertResult result = contactUpsertService.upsert(contacts);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Fetches several contacts in one query, e.g. {@code /contacts/batch?ids=3,1,2}, in the
+     * requested order. Unknown ids are returned in {@code missingIds}.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ContactBatch> getContacts(@RequestParam List<Long> ids) {
+        ContactBatch contacts = contactService.getContacts(ids);
+        return new ResponseEntity<>(contacts, HttpStatus.OK);
+    }
+
+    /**
+     * Same as {@code GET /contacts/batch}, taking the ids as a JSON array body for long lists.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ContactBatch> getContactsByPost(@RequestBody List<Long> ids) {
+        ContactBatch contacts = contactService.getContacts(ids);
         return new ResponseEntity<>(contacts, HttpStatus.OK);
     }
 
@@ -51,6 +174,50 @@ public class ContactController {
         return new ResponseEntity<>(contact, HttpStatus.OK);
     }
 
+    /**
+     * Serves the contact's photo. With {@code size}, the smallest resized variant at least that
+     * many pixels across is served, or the original until the variant has been generated.
+     * The {@code v} parameter from {@code photoUrl}/{@code thumbnailUrl} pins the content, so
+     * such responses may be cached for a year; unversioned requests, and the original served in
+     * place of a variant, must revalidate, which costs a 304 when nothing changed. Supports
+     * single byte ranges.
+     */
+    @GetMapping("/{id}/photo")
+    public void getContactPhoto(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String v,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        ContactDTO contact = contactService.getContact(id);
+        String version = contact.getPhotoVersion();
+        Optional<PhotoLocation> photo = version == null
+                ? Optional.empty()
+                : photoStorage.locate(contact.getPhotoPath());
+        if (photo.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        PhotoLocation location = photo.get();
+        String etag = "\"" + version + "\"";
+        boolean fallback = false;
+        if (size != null) {
+            PhotoThumbnails.Variant variant = photoThumbnails.find(contact.getPhotoPath(), version, size);
+            if (variant != null) {
+                location = new PhotoLocation(variant.path(), 0, Files.size(variant.path()),
+                        variant.path().getFileName().toString());
+                etag = "\"" + version + "-" + variant.size() + "\"";
+            } else {
+                fallback = true;
+            }
+        }
+        // The original standing in for a variant not yet generated must not be cached as the variant
+        CacheControl cacheControl = version.equals(v) && !fallback
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+        PhotoResponder.send(location, etag, cacheControl, request, response);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ContactDTO> updateContact(
             @PathVariable Long id,
@@ -60,18 +227,60 @@ public class ContactController {
         return new ResponseEntity<>(updatedContact, HttpStatus.OK);
     }
 
+    /**
+     * Changes individual fields with a JSON Merge Patch body, e.g. {@code {"phone": "5551234567"}};
+     * {@code null} clears a field. Returns the updated contact.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ContactDTO> patchContact(@PathVariable Long id, @RequestBody JsonNode patch) {
+        ContactDTO patchedContact = contactService.patchContact(id, patch);
+        return new ResponseEntity<>(patchedContact, HttpStatus.OK);
+    }
+
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteContact(@PathVariable Long id) throws IOException {
+    public ResponseEntity<Void> deleteContact(@PathVariable Long id) {
         contactService.deleteContact(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * Finds contacts by meaning rather than by substring, e.g.
+     * {@code /contacts/semantic?q=cloud infrastructure}: matches job titles, companies and notes
+     * through text embeddings, most similar first.
+     */
+    @GetMapping("/semantic")
+    public ResponseEntity<SemanticSearchResult> semanticSearch(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        SemanticSearchResult result = contactService.semanticSearch(q, limit);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Type-ahead completions for a search box, e.g. {@code /contacts/suggest?prefix=jo}: contact
+     * names, emails and companies with a word starting with the prefix, from memory.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ContactSuggestion>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<ContactSuggestion> suggestions = contactService.suggest(prefix, limit);
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<Page<ContactDTO>> searchContacts(
+    public ResponseEntity<?> searchContacts(
             @RequestParam String searchTerm,
+            @RequestParam(required = false) String mode,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<ContactDTO> contacts = contactService.searchContacts(searchTerm, page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean count) {
+        SearchMode searchMode = mode == null ? null : SearchMode.from(mode);
+        if (!count) {
+            SliceResponse<ContactDTO> contacts = contactService.searchContactsSlice(searchTerm, searchMode, page, size);
+            return new ResponseEntity<>(contacts, HttpStatus.OK);
+        }
+        Page<ContactDTO> contacts = contactService.searchContacts(searchTerm, searchMode, page, size);
         return new ResponseEntity<>(contacts, HttpStatus.OK);
     }
 }
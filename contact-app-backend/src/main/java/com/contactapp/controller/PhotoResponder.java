@@ -0,0 +1,102 @@
+package com.contactapp.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import com.contactapp.service.PhotoStorage.PhotoLocation;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes a stored photo (a byte range of a file) to the response with conditional
+ * (ETag / If-None-Match) and single-range support. The body is handed to Tomcat's sendfile
+ * where available, so the kernel copies file pages straight to the socket and the bytes never
+ * pass through the heap. Otherwise it is copied with {@link FileChannel#transferTo} into the
+ * servlet output stream, which goes through a heap buffer.
+ */
+final class PhotoResponder {
+
+    // Tomcat request attributes for sendfile (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private PhotoResponder() {
+    }
+
+    static void send(PhotoLocation photo, String etag, CacheControl cacheControl,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        // Sets the ETag header, and the 304 status when If-None-Match matches
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        long length = photo.length();
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Several ranges would need a multipart/byteranges body; a full response is valid
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range starts beyond the photo's end");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(photo.fileName())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        // Offsets within the file: a photo may be one entry of a larger pack file
+        long fileStart = photo.offset() + start;
+        long fileEnd = photo.offset() + end + 1;
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, photo.file().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, fileStart);
+            request.setAttribute(SENDFILE_END, fileEnd);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(photo.file())) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = fileStart;
+            while (position < fileEnd) {
+                position += channel.transferTo(position, fileEnd - position, out);
+            }
+        }
+    }
+
+    // With an If-Range validator, a Range request gets a partial response only if unchanged
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+}
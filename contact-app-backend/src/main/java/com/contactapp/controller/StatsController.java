@@ -0,0 +1,118 @@
+package com.contactapp.controller;
+
+import com.contactapp.cache.CacheStats;
+import com.contactapp.dto.ChatLimiterStats;
+import com.contactapp.dto.ChatSessionStats;
+import com.contactapp.dto.PhotoCleanupStats;
+import com.contactapp.dto.SemanticIndexStats;
+import com.contactapp.dto.SuggestIndexStats;
+import com.contactapp.dto.ThumbnailStats;
+import com.contactapp.dto.ToolUsageStats;
+import com.contactapp.dto.VirtualThreadStats;
+import com.contactapp.service.ChatLimiter;
+import com.contactapp.service.ChatResponseCache;
+import com.contactapp.service.ChatSessions;
+import com.contactapp.service.ContactCache;
+import com.contactapp.service.ContactSearchCache;
+import com.contactapp.service.ContactSemanticIndex;
+import com.contactapp.service.ContactSuggestIndex;
+import com.contactapp.service.PhotoCleaner;
+import com.contactapp.service.PhotoThumbnails;
+import com.contactapp.service.VirtualThreadMonitor;
+import com.contactapp.tools.ToolUsage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runtime counters for sizing the in-process caches and watching background work.
+ */
+@RestController
+@RequestMapping("/stats")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"}, allowCredentials = "true")
+public class StatsController {
+
+    private final ContactCache contactCache;
+    private final ContactSearchCache searchCache;
+    private final PhotoThumbnails photoThumbnails;
+    private final PhotoCleaner photoCleaner;
+    private final VirtualThreadMonitor virtualThreadMonitor;
+    private final ChatLimiter chatLimiter;
+    private final ChatResponseCache chatResponseCache;
+    private final ToolUsage toolUsage;
+    private final ContactSemanticIndex semanticIndex;
+    private final ChatSessions chatSessions;
+    private final ContactSuggestIndex suggestIndex;
+
+    // Constructor injection (replacing Lombok @RequiredArgsConstructor)
+    public StatsController(ContactCache contactCache, ContactSearchCache searchCache,
+                           PhotoThumbnails photoThumbnails, PhotoCleaner photoCleaner,
+                           VirtualThreadMonitor virtualThreadMonitor, ChatLimiter chatLimiter,
+                           ChatResponseCache chatResponseCache, ToolUsage toolUsage,
+                           ContactSemanticIndex semanticIndex, ChatSessions chatSessions,
+                           ContactSuggestIndex suggestIndex) {
+        this.contactCache = contactCache;
+        this.searchCache = searchCache;
+        this.photoThumbnails = photoThumbnails;
+        this.photoCleaner = photoCleaner;
+        this.virtualThreadMonitor = virtualThreadMonitor;
+        this.chatLimiter = chatLimiter;
+        this.chatResponseCache = chatResponseCache;
+        this.toolUsage = toolUsage;
+        this.semanticIndex = semanticIndex;
+        this.chatSessions = chatSessions;
+        this.suggestIndex = suggestIndex;
+    }
+
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("contacts", contactCache.stats());
+        stats.put("search", searchCache.stats());
+        stats.put("chat", chatResponseCache.stats());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    @GetMapping("/thumbnails")
+    public ResponseEntity<ThumbnailStats> getThumbnailStats() {
+        return new ResponseEntity<>(photoThumbnails.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/photo-cleanup")
+    public ResponseEntity<PhotoCleanupStats> getPhotoCleanupStats() {
+        return new ResponseEntity<>(photoCleaner.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/virtual-threads")
+    public ResponseEntity<VirtualThreadStats> getVirtualThreadStats() {
+        return new ResponseEntity<>(virtualThreadMonitor.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/chat")
+    public ResponseEntity<ChatLimiterStats> getChatStats() {
+        return new ResponseEntity<>(chatLimiter.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/chat-sessions")
+    public ResponseEntity<ChatSessionStats> getChatSessionStats() {
+        return new ResponseEntity<>(chatSessions.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/semantic-index")
+    public ResponseEntity<SemanticIndexStats> getSemanticIndexStats() {
+        return new ResponseEntity<>(semanticIndex.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/suggest-index")
+    public ResponseEntity<SuggestIndexStats> getSuggestIndexStats() {
+        return new ResponseEntity<>(suggestIndex.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/tools")
+    public ResponseEntity<Map<String, ToolUsageStats>> getToolStats() {
+        return new ResponseEntity<>(toolUsage.stats(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,19 @@
+package com.contactapp.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk upsert. {@code rows} holds one entry per submitted contact, in request order.
+ */
+public record BulkUpsertResult(
+        int created,
+        int updated,
+        int unchanged,
+        int rejected,
+        List<Row> rows) {
+
+    public enum Outcome { CREATED, UPDATED, UNCHANGED, REJECTED }
+
+    /** {@code index} is the 0-based position in the request; {@code id} is null for rejected rows. */
+    public record Row(int index, String email, Outcome outcome, Long id, String error) {}
+}
@@ -0,0 +1,20 @@
+package com.contactapp.dto;
+
+/**
+ * Gauges and counters of the chat bulkhead. {@code rejectedQueueFull} chats found the queue
+ * full (429); {@code rejectedDeadline} would have waited past the queue timeout and
+ * {@code timedOut} did (both 503). Waits are measured from arrival to admission.
+ */
+public record ChatLimiterStats(
+        int maxInFlight,
+        int inFlight,
+        int queued,
+        int queueCapacity,
+        long queueTimeoutMillis,
+        long admitted,
+        long rejectedQueueFull,
+        long rejectedDeadline,
+        long timedOut,
+        long averageQueueWaitMillis,
+        long maxQueueWaitMillis,
+        long averageGenerationMillis) {}
@@ -0,0 +1,23 @@
+package com.contactapp.dto;
+
+/**
+ * Size and activity of the chat session memory. {@code bytes} is the estimated memory held,
+ * {@code rawBytes} what the remembered texts take uncompressed; {@code trimmed} counts turns
+ * and tool results dropped to keep sessions within their caps, {@code evicted} sessions dropped
+ * to keep the store within its caps. {@code toolResultsReused} are tool calls answered from
+ * memory instead of running the tool.
+ */
+public record ChatSessionStats(
+        int sessions,
+        int maxSessions,
+        int turns,
+        int toolResults,
+        long bytes,
+        long maxBytes,
+        long rawBytes,
+        long created,
+        long expired,
+        long evicted,
+        long trimmed,
+        long toolResultsStored,
+        long toolResultsReused) {}
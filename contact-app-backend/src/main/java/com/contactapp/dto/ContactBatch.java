@@ -0,0 +1,9 @@
+package com.contactapp.dto;
+
+import java.util.List;
+
+/**
+ * Contacts resolved by id. {@code contacts} follows the order of the requested ids;
+ * ids with no matching contact are listed in {@code missingIds} instead.
+ */
+public record ContactBatch(List<ContactDTO> contacts, List<Long> missingIds) {}
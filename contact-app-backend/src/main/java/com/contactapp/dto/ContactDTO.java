@@ -1,5 +1,6 @@
 package com.contactapp.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -328,4 +329,41 @@ public class ContactDTO {
     public String getFullName() {
         return firstName + " " + lastName;
     }
+
+    /**
+     * Photo URL relative to the API base, versioned by the photo's content so clients can
+     * cache it indefinitely; {@code null} when the contact has no photo.
+     */
+    public String getPhotoUrl() {
+        String version = getPhotoVersion();
+        return version == null || id == null ? null : "/contacts/" + id + "/photo?v=" + version;
+    }
+
+    /** Like {@link #getPhotoUrl()}, for the small variant used as an avatar in lists. */
+    public String getThumbnailUrl() {
+        String version = getPhotoVersion();
+        return version == null || id == null ? null : "/contacts/" + id + "/photo?size=48&v=" + version;
+    }
+
+    /**
+     * Identifies the photo's content: the stored name without extension, which is the content
+     * hash for photos stored by content (older uploads have a unique per-upload name).
+     * Handles both file paths and {@code pack:} locators.
+     */
+    @JsonIgnore
+    public String getPhotoVersion() {
+        return photoVersionOf(photoPath);
+    }
+
+    /** The {@link #getPhotoVersion() photo version} of a stored photoPath, or null. */
+    public static String photoVersionOf(String photoPath) {
+        if (photoPath == null) {
+            return null;
+        }
+        int separator = Math.max(photoPath.lastIndexOf(':'),
+                Math.max(photoPath.lastIndexOf('/'), photoPath.lastIndexOf('\\')));
+        String name = photoPath.substring(separator + 1);
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name).replaceAll("[^A-Za-z0-9_-]", "_");
+    }
 }
@@ -0,0 +1,7 @@
+package com.contactapp.dto;
+
+/**
+ * A type-ahead completion: a contact name, email or company ({@code field}) and how many
+ * contacts have it. {@code contactId} is set when exactly one contact does.
+ */
+public record ContactSuggestion(String text, String field, int contacts, Long contactId) {}
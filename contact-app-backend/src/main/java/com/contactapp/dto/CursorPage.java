@@ -0,0 +1,9 @@
+package com.contactapp.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is opaque to clients and
+ * is {@code null} once the last page has been reached.
+ */
+public record CursorPage<T>(List<T> content, int size, String nextCursor, boolean hasNext) {}
@@ -0,0 +1,27 @@
+package com.contactapp.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress and outcome of a bulk contact import. {@code rejections} lists at most the first
+ * 100 rejected rows; {@code rowsRejected} is the full count.
+ */
+public record ImportJobStatus(
+        String id,
+        String format,
+        State state,
+        long rowsRead,
+        long rowsImported,
+        long rowsRejected,
+        double rowsPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        String error,
+        List<Rejection> rejections) {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    /** A row that was not imported; {@code row} is 1-based and excludes any header. */
+    public record Rejection(long row, String reason) {}
+}
@@ -0,0 +1,18 @@
+package com.contactapp.dto;
+
+import java.time.Instant;
+
+/**
+ * Counters for background photo cleanup. {@code kept} counts queued deletions skipped because
+ * the photo was referenced or stored again; the {@code lastSweep} fields describe the most
+ * recent orphan sweep ({@code lastSweepAt} is null until one has run).
+ */
+public record PhotoCleanupStats(
+        int pending,
+        long deleted,
+        long kept,
+        long failed,
+        Instant lastSweepAt,
+        long lastSweepPhotos,
+        long lastSweepThumbnails,
+        long lastSweepMillis) {}
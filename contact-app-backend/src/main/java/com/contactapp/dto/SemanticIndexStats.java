@@ -0,0 +1,26 @@
+package com.contactapp.dto;
+
+import java.time.Instant;
+
+/**
+ * State of the semantic contact index. {@code ready} turns true once every contact has been
+ * indexed after startup; {@code deleted} counts removed contacts still kept in the graph for
+ * routing; times are averages in microseconds.
+ */
+public record SemanticIndexStats(
+        String model,
+        boolean ready,
+        int contacts,
+        int deleted,
+        int dimensions,
+        int pendingUpdates,
+        long embedded,
+        long averageEmbedMicros,
+        long failures,
+        long searches,
+        long averageSearchMicros,
+        long lastResyncMillis,
+        long estimatedMemoryBytes,
+        long fileBytes,
+        Instant lastSaved,
+        String lastFailure) {}
@@ -0,0 +1,14 @@
+package com.contactapp.dto;
+
+import java.util.List;
+
+/**
+ * Contacts matching a semantic query, most similar first. {@code complete} is false while
+ * the index is still being built after startup, when some contacts cannot be found yet, and
+ * when the query could not be embedded, e.g. while Ollama is unavailable.
+ */
+public record SemanticSearchResult(List<Match> matches, boolean complete) {
+
+    /** A matching contact and its cosine similarity to the query, from -1 to 1. */
+    public record Match(ContactDTO contact, float score) {}
+}
@@ -0,0 +1,17 @@
+package com.contactapp.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Count-free page of results. {@code hasNext} comes from reading one row past the page;
+ * {@code approximateTotal} is a cached estimate for page-count display, or {@code null}
+ * when none is available (e.g. for search results).
+ */
+public record SliceResponse<T>(List<T> content, int number, int size, boolean hasNext, Long approximateTotal) {
+
+    public static <T> SliceResponse<T> of(Slice<T> slice, Long approximateTotal) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), approximateTotal);
+    }
+}
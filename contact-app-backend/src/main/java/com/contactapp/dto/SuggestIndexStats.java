@@ -0,0 +1,22 @@
+package com.contactapp.dto;
+
+import java.time.Instant;
+
+/**
+ * State of the type-ahead suggest index. {@code changedContacts} counts contacts written since
+ * the last build, kept in an overlay until the next one; the suggest time is an average in
+ * nanoseconds.
+ */
+public record SuggestIndexStats(
+        boolean ready,
+        int contacts,
+        int completions,
+        int changedContacts,
+        long estimatedMemoryBytes,
+        long builds,
+        long lastBuildMillis,
+        Instant lastBuilt,
+        long updates,
+        long suggestions,
+        long averageSuggestNanos,
+        String lastFailure) {}
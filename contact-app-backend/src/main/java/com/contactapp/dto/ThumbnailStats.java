@@ -0,0 +1,17 @@
+package com.contactapp.dto;
+
+import java.util.List;
+
+/**
+ * Counters for background photo thumbnail generation. {@code pending} includes running tasks;
+ * {@code dropped} counts photos not queued because the queue was full (they are retried the
+ * next time the photo is requested).
+ */
+public record ThumbnailStats(
+        List<Integer> sizes,
+        int pending,
+        int maxPending,
+        long generated,
+        long failed,
+        long dropped,
+        String lastFailure) {}
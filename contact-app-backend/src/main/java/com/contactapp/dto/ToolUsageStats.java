@@ -0,0 +1,14 @@
+package com.contactapp.dto;
+
+/**
+ * Calls of one chat tool and their estimated token counts: {@code inputTokens} of the
+ * arguments the model sent and {@code resultTokens} of the results it had to read.
+ */
+public record ToolUsageStats(
+        long calls,
+        long failures,
+        long inputTokens,
+        long resultTokens,
+        long maxResultTokens,
+        long averageResultTokens,
+        long averageMillis) {}
@@ -0,0 +1,16 @@
+package com.contactapp.dto;
+
+import java.util.Map;
+
+/**
+ * Virtual thread pinning counters. Only pinnings longer than {@code thresholdMillis} are
+ * recorded; {@code topSites} maps the innermost application frame of each pinning site to its
+ * count, most frequent first.
+ */
+public record VirtualThreadStats(
+        boolean virtualThreadsEnabled,
+        boolean monitoring,
+        long thresholdMillis,
+        long pinnedEvents,
+        long pinnedMillis,
+        Map<String, Long> topSites) {}
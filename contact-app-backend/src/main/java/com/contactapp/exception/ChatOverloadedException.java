@@ -0,0 +1,31 @@
+package com.contactapp.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * A chat turned away because the model is saturated; answered with {@code status} and a
+ * Retry-After header.
+ */
+public class ChatOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public ChatOverloadedException(HttpStatus status, String message, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
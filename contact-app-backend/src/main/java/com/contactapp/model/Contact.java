@@ -1,5 +1,6 @@
 package com.contactapp.model;
 
+import com.contactapp.dto.ContactDTO;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -7,9 +8,34 @@ import jakarta.validation.constraints.Pattern;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "contacts")
+// Builds ContactDTOs straight from native query rows, bypassing entity hydration
+@SqlResultSetMapping(name = Contact.DTO_MAPPING, classes = @ConstructorResult(targetClass = ContactDTO.class, columns = {
+        @ColumnResult(name = "id", type = Long.class),
+        @ColumnResult(name = "first_name"),
+        @ColumnResult(name = "last_name"),
+        @ColumnResult(name = "email"),
+        @ColumnResult(name = "phone"),
+        @ColumnResult(name = "company"),
+        @ColumnResult(name = "job_title"),
+        @ColumnResult(name = "address"),
+        @ColumnResult(name = "city"),
+        @ColumnResult(name = "state"),
+        @ColumnResult(name = "zip_code"),
+        @ColumnResult(name = "country"),
+        @ColumnResult(name = "notes"),
+        @ColumnResult(name = "photo_filename"),
+        @ColumnResult(name = "photo_path"),
+        @ColumnResult(name = "created_at", type = LocalDateTime.class),
+        @ColumnResult(name = "updated_at", type = LocalDateTime.class)
+}))
+@Table(name = "contacts", indexes = {
+        // Matches the name ordering and the keyset pagination seek on (first_name, last_name, id)
+        @Index(name = "idx_name", columnList = "first_name, last_name, id")
+})
 public class Contact {
 
+    public static final String DTO_MAPPING = "ContactDTO";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
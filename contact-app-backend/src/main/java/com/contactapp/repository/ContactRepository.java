@@ -1,29 +1,115 @@
 package com.contactapp.repository;
 
+import com.contactapp.dto.ContactDTO;
 import com.contactapp.model.Contact;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long> {
 
     Optional<Contact> findByEmail(String email);
 
-    @Query("SELECT c FROM Contact c WHERE LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(c.phone) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(c.company) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Contact> searchContacts(@Param("searchTerm") String searchTerm, Pageable pageable);
+    // Read paths project straight into ContactDTO so no managed entities or snapshots are created
+    String CONTACT_DTO =
+            "SELECT new com.contactapp.dto.ContactDTO(c.id, c.firstName, c.lastName, c.email, c.phone, c.company, " +
+            "c.jobTitle, c.address, c.city, c.state, c.zipCode, c.country, c.notes, c.photoFileName, c.photoPath, " +
+            "c.createdAt, c.updatedAt) FROM Contact c ";
 
-    @Query("SELECT c FROM Contact c ORDER BY c.firstName ASC, c.lastName ASC")
-    Page<Contact> findAllOrderByName(Pageable pageable);
+    // Native counterpart of CONTACT_DTO, mapped through Contact.DTO_MAPPING
+    String CONTACT_COLUMNS =
+            "c.id, c.first_name, c.last_name, c.email, c.phone, c.company, c.job_title, c.address, c.city, " +
+            "c.state, c.zip_code, c.country, c.notes, c.photo_filename, c.photo_path, c.created_at, c.updated_at";
+
+    String LIKE_PREDICATE =
+            "WHERE LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+            "OR LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+            "OR LOWER(c.phone) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+            "OR LOWER(c.company) LIKE LOWER(CONCAT('%', :searchTerm, '%'))";
+
+    // Served by the pg_trgm GIN index on search_text (see init-db/02-search-indexes.sql);
+    // pattern is the lower-cased, LIKE-escaped term wrapped in '%'
+    String TRIGRAM_SEARCH =
+            "SELECT " + CONTACT_COLUMNS + " FROM contacts c WHERE c.search_text LIKE :pattern " +
+            "ORDER BY word_similarity(:term, c.search_text) DESC, c.first_name, c.last_name, c.id";
+
+    // Served by the GIN index on search_document (see init-db/03-fulltext-search.sql); query is
+    // a to_tsquery expression of prefix terms, e.g. 'cloud:* & eng:*', and words the same terms
+    // as whole words ('cloud | eng'), which rank contacts with the exact word above those with
+    // longer words starting with it
+    String FULLTEXT_SEARCH =
+            "SELECT " + CONTACT_COLUMNS + " FROM contacts c " +
+            "CROSS JOIN to_tsquery('simple', :query) q CROSS JOIN to_tsquery('simple', :words) w " +
+            "WHERE c.search_document @@ q " +
+            "ORDER BY ts_rank(c.search_document, q) + ts_rank(c.search_document, w) DESC, " +
+            "c.first_name, c.last_name, c.id";
+
+    String NAME_ORDER = "ORDER BY c.firstName ASC, c.lastName ASC, c.id ASC";
+
+    @Query(value = CONTACT_DTO + LIKE_PREDICATE,
+           countQuery = "SELECT COUNT(c) FROM Contact c " + LIKE_PREDICATE)
+    Page<ContactDTO> searchContacts(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    @NativeQuery(value = TRIGRAM_SEARCH,
+                 countQuery = "SELECT COUNT(*) FROM contacts c WHERE c.search_text LIKE :pattern",
+                 sqlResultSetMapping = Contact.DTO_MAPPING)
+    Page<ContactDTO> searchContactsByTrigram(@Param("term") String term, @Param("pattern") String pattern, Pageable pageable);
+
+    @NativeQuery(value = FULLTEXT_SEARCH,
+                 countQuery = "SELECT COUNT(*) FROM contacts c WHERE c.search_document @@ to_tsquery('simple', :query)",
+                 sqlResultSetMapping = Contact.DTO_MAPPING)
+    Page<ContactDTO> searchContactsByFullText(@Param("query") String query, @Param("words") String words,
+                                              Pageable pageable);
+
+    @Query(value = CONTACT_DTO + NAME_ORDER,
+           countQuery = "SELECT COUNT(c) FROM Contact c")
+    Page<ContactDTO> findAllOrderByName(Pageable pageable);
+
+    // Slice variants read size+1 rows to compute hasNext and never issue a COUNT(*)
+    @Query(CONTACT_DTO + LIKE_PREDICATE)
+    Slice<ContactDTO> searchContactsSlice(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    @NativeQuery(value = TRIGRAM_SEARCH, sqlResultSetMapping = Contact.DTO_MAPPING)
+    Slice<ContactDTO> searchContactsByTrigramSlice(@Param("term") String term, @Param("pattern") String pattern, Pageable pageable);
+
+    @NativeQuery(value = FULLTEXT_SEARCH, sqlResultSetMapping = Contact.DTO_MAPPING)
+    Slice<ContactDTO> searchContactsByFullTextSlice(@Param("query") String query, @Param("words") String words,
+                                                    Pageable pageable);
+
+    @Query(CONTACT_DTO + NAME_ORDER)
+    Slice<ContactDTO> findAllOrderByNameSlice(Pageable pageable);
+
+    // Keyset pagination: first page and seek past the last row seen, both served by idx_name
+    @Query(CONTACT_DTO + NAME_ORDER)
+    List<ContactDTO> findFirstOrderByName(Limit limit);
+
+    @Query(CONTACT_DTO + "WHERE (c.firstName, c.lastName, c.id) > (:firstName, :lastName, :id) " + NAME_ORDER)
+    List<ContactDTO> findAfterOrderByName(@Param("firstName") String firstName, @Param("lastName") String lastName,
+                                          @Param("id") Long id, Limit limit);
+
+    // Forward-only server-side cursor for exports: rows arrive in fetch-size chunks and, being
+    // DTO projections, never accumulate in the persistence context. Must be consumed and closed
+    // inside a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(CONTACT_DTO + "ORDER BY c.id")
+    Stream<ContactDTO> streamAllOrderById();
 
     List<Contact> findByFirstNameContainsIgnoreCaseOrLastNameContainsIgnoreCase(String firstName, String lastName);
 }
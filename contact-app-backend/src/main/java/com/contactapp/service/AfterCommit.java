@@ -0,0 +1,31 @@
+package com.contactapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs follow-up work (cache eviction, index updates, file deletion) once the current
+ * transaction commits, and never on rollback.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /** Runs {@code action} once the current transaction commits, or right away when there is none. */
+    static void run(Runnable action) {
+        // Not isSynchronizationActive(): that is also true in non-transactional scopes (SUPPORTS,
+        // NOT_SUPPORTED), whose afterCommit runs without a commit, or never if they end with an
+        // exception. Their statements have already auto-committed
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
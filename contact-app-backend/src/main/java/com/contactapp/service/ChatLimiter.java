@@ -0,0 +1,142 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ChatLimiterStats;
+import com.contactapp.exception.ChatOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulkhead in front of the chat model. Ollama on a CPU-only host generates only a few answers
+ * at once; sending it more makes every answer slower until all of them time out. At most
+ * {@code max-in-flight} chats run at a time, the rest wait in first-come-first-served order.
+ * <p>
+ * A chat is rejected rather than queued when {@code queue-capacity} chats are already waiting
+ * (429), when its wait would, judging by recent answers, exceed {@code queue-timeout} (503,
+ * without waiting), or when it has waited that long (503). Rejections carry a Retry-After
+ * estimate. Waiting blocks the request thread, which is cheap on virtual threads.
+ */
+@Component
+public class ChatLimiter {
+
+    // Weight of the latest answer in the running average of generation time
+    private static final double AVERAGE_WEIGHT = 0.2;
+
+    private final int maxInFlight;
+    private final int queueCapacity;
+    private final Duration queueTimeout;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedDeadline = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    // Exponential moving average; 0 until the first chat completes
+    private volatile long averageGenerationNanos;
+
+    public ChatLimiter(@Value("${contacts.chat.max-in-flight:2}") int maxInFlight,
+                       @Value("${contacts.chat.queue-capacity:20}") int queueCapacity,
+                       @Value("${contacts.chat.queue-timeout:30s}") Duration queueTimeout) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("contacts.chat.max-in-flight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeout = queueTimeout;
+        // Fair, so waiting chats are admitted in arrival order
+        this.permits = new Semaphore(maxInFlight, true);
+    }
+
+    /**
+     * Waits for a free generation slot. The returned permit must be closed when the chat ends.
+     *
+     * @throws ChatOverloadedException if the chat is rejected
+     */
+    public Permit acquire() {
+        long started = System.nanoTime();
+        // A fair semaphore only honors arrival order for timed acquires
+        if (queued.get() == 0 && tryAcquire(0)) {
+            return admit(started);
+        }
+        int position = queued.incrementAndGet();
+        try {
+            if (position > queueCapacity) {
+                rejectedQueueFull.incrementAndGet();
+                throw overloaded(HttpStatus.TOO_MANY_REQUESTS, "Too many chats waiting, try again later", position);
+            }
+            long expectedWait = averageGenerationNanos * position / maxInFlight;
+            if (expectedWait > queueTimeout.toNanos()) {
+                rejectedDeadline.incrementAndGet();
+                throw overloaded(HttpStatus.SERVICE_UNAVAILABLE, "The assistant is busy, try again later", position);
+            }
+            if (!tryAcquire(queueTimeout.toNanos())) {
+                timedOut.incrementAndGet();
+                throw overloaded(HttpStatus.SERVICE_UNAVAILABLE, "The assistant is busy, try again later", position);
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+        return admit(started);
+    }
+
+    public ChatLimiterStats stats() {
+        long count = admitted.get();
+        return new ChatLimiterStats(maxInFlight, maxInFlight - permits.availablePermits(), queued.get(),
+                queueCapacity, queueTimeout.toMillis(), count, rejectedQueueFull.get(), rejectedDeadline.get(),
+                timedOut.get(), count == 0 ? 0 : queueWaitNanos.get() / count / 1_000_000,
+                maxQueueWaitNanos.get() / 1_000_000, averageGenerationNanos / 1_000_000);
+    }
+
+    private boolean tryAcquire(long timeoutNanos) {
+        try {
+            return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the chat model", e);
+        }
+    }
+
+    private Permit admit(long started) {
+        long waited = System.nanoTime() - started;
+        admitted.incrementAndGet();
+        queueWaitNanos.addAndGet(waited);
+        maxQueueWaitNanos.accumulateAndGet(waited, Math::max);
+        return new Permit();
+    }
+
+    private ChatOverloadedException overloaded(HttpStatus status, String message, int position) {
+        // Roughly when a slot frees up for a chat arriving now: the queue ahead drains maxInFlight at a time
+        long average = averageGenerationNanos == 0 ? TimeUnit.SECONDS.toNanos(1) : averageGenerationNanos;
+        long seconds = (long) Math.ceil(average * (double) Math.min(position, queueCapacity + 1) / maxInFlight / 1e9);
+        return new ChatOverloadedException(status, message, Duration.ofSeconds(Math.max(1, seconds)));
+    }
+
+    /** A generation slot, released by {@link #close()} (once; later calls do nothing). */
+    public final class Permit implements AutoCloseable {
+
+        private final long started = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                long took = System.nanoTime() - started;
+                long average = averageGenerationNanos;
+                averageGenerationNanos = average == 0 ? took : (long) (average + AVERAGE_WEIGHT * (took - average));
+                permits.release();
+            }
+        }
+    }
+}
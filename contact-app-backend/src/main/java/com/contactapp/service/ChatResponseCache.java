@@ -0,0 +1,67 @@
+package com.contactapp.service;
+
+import com.contactapp.cache.CacheStats;
+import com.contactapp.cache.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Caches chat answers by normalized prompt under the current {@link ContactDataVersion}, so a
+ * repeated question costs no model run or tool calls. As with search pages, the version is
+ * captured before the chat runs: an answer computed while a write commits is stored under
+ * the old version and never served.
+ * <p>
+ * Answers that used a tool with side effects or one whose result depends on more than the
+ * contact data (see {@link #UNCACHEABLE_TOOLS}) are not cached.
+ */
+@Component
+public class ChatResponseCache {
+
+    /** Where the cached answer would be stored: the prompt and the data version it was asked at. */
+    public record Key(long version, String prompt) {}
+
+    static final Set<String> UNCACHEABLE_TOOLS = Set.of("deleteContact", "getCurrentDate");
+
+    private final ContactDataVersion dataVersion;
+    private final LruCache<Key, String> cache;
+
+    public ChatResponseCache(ContactDataVersion dataVersion,
+                             @Value("${contacts.chat.cache.max-size:500}") int maxSize,
+                             @Value("${contacts.chat.cache.ttl:1h}") Duration ttl) {
+        this.dataVersion = dataVersion;
+        this.cache = new LruCache<>("chat", maxSize, ttl);
+    }
+
+    /** The key for {@code prompt} at the current data version; take it before running the chat. */
+    public Key key(String prompt) {
+        return new Key(dataVersion.current(), normalize(prompt));
+    }
+
+    /** Returns the cached answer, or {@code null}. */
+    public String getIfPresent(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /** Stores the answer unless it is empty or one of {@code toolsCalled} makes it uncacheable. */
+    public void put(Key key, String answer, Collection<String> toolsCalled) {
+        if (answer == null || answer.isBlank() || toolsCalled.stream().anyMatch(UNCACHEABLE_TOOLS::contains)) {
+            return;
+        }
+        cache.put(key, answer);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // Case, surrounding and repeated whitespace, and trailing punctuation do not change the question
+    static String normalize(String prompt) {
+        String text = prompt.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return text.replaceAll("[\\s?.!]+$", "");
+    }
+}
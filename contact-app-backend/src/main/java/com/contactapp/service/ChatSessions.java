@@ -0,0 +1,444 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ChatSessionStats;
+import jakarta.annotation.PreDestroy;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Memory of multi-turn chats: per session, a window of the latest turns (prompt and answer)
+ * and the results of the tools called along the way. A follow-up such as "and her phone
+ * number?" gets the earlier turns and tool results in its prompt, and a tool call repeating an
+ * earlier one (same tool, same arguments) is answered from memory instead of the database.
+ * <p>
+ * Like {@link ChatResponseCache}, tool results are stored under the {@link ContactDataVersion}
+ * current when the chat started and only reused while it is still current, so a contact write
+ * retires them. Results of tools with side effects or that do not depend on the contact data
+ * alone are never stored.
+ * <p>
+ * Memory is bounded: each session keeps at most {@code max-turns} turns and
+ * {@code max-tool-results} results within {@code max-session-size} (oldest dropped first), the
+ * whole store stays within {@code max-sessions} and {@code max-total-size} (least recently used
+ * sessions dropped first), and sessions idle for {@code idle-timeout} expire. Texts are kept
+ * as UTF-8, deflated when that makes them smaller: JSON tool results shrink to about a third.
+ */
+@Component
+public class ChatSessions implements ApplicationRunner {
+
+    /** Key of the {@link Conversation} in the tool context of a chat. */
+    public static final String CONVERSATION_KEY = "chatConversation";
+
+    static final Set<String> UNREUSABLE_TOOLS = ChatResponseCache.UNCACHEABLE_TOOLS;
+    // Map entries, array headers and the session's own fields; an estimate, as is the whole size
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int COMPRESS_MIN_BYTES = 128;
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+
+    public record Turn(String prompt, String answer) {}
+
+    public record ToolResult(String tool, String arguments, String result) {}
+
+    /**
+     * A chat within a session, as seen when it started: the session id (new if the chat did not
+     * name a known session), the remembered turns oldest first, the tool results still current,
+     * most recent first, and the data version new tool results will be stored under.
+     */
+    public record Conversation(String sessionId, List<Turn> turns, List<ToolResult> toolResults, long version) {}
+
+    private record StoredResult(long version, byte[] result) {}
+
+    private static final class Session {
+        final ArrayDeque<byte[]> turns = new ArrayDeque<>();
+        // Insertion order: iteration starts at the oldest result
+        final LinkedHashMap<String, StoredResult> toolResults = new LinkedHashMap<>();
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        long lastUsedNanos = System.nanoTime();
+    }
+
+    private final ContactDataVersion dataVersion;
+    private final int maxTurns;
+    private final int maxToolResults;
+    private final long maxSessionBytes;
+    private final int maxSessions;
+    private final long maxTotalBytes;
+    private final long idleTimeoutNanos;
+    // Access order: iteration starts at the least recently used session
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("chat-sessions").daemon().factory());
+
+    private long totalBytes;
+    private long rawBytes;
+    private long created;
+    private long expired;
+    private long evicted;
+    private long trimmed;
+    private long toolResultsStored;
+    private long toolResultsReused;
+
+    public ChatSessions(ContactDataVersion dataVersion,
+                        @Value("${contacts.chat.memory.max-turns:6}") int maxTurns,
+                        @Value("${contacts.chat.memory.max-tool-results:8}") int maxToolResults,
+                        @Value("${contacts.chat.memory.max-session-size:64KB}") DataSize maxSessionSize,
+                        @Value("${contacts.chat.memory.max-sessions:10000}") int maxSessions,
+                        @Value("${contacts.chat.memory.max-total-size:32MB}") DataSize maxTotalSize,
+                        @Value("${contacts.chat.memory.idle-timeout:30m}") Duration idleTimeout) {
+        this.dataVersion = dataVersion;
+        this.maxTurns = maxTurns;
+        this.maxToolResults = maxToolResults;
+        this.maxSessionBytes = maxSessionSize.toBytes();
+        this.maxSessions = maxSessions;
+        this.maxTotalBytes = maxTotalSize.toBytes();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /** Starts expiring idle sessions in the background. */
+    @Override
+    public void run(ApplicationArguments args) {
+        long sweepMillis = Math.max(1000, TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 4);
+        executor.scheduleWithFixedDelay(this::expireIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a chat in session {@code sessionId}, or in a new session when it is {@code null} or
+     * no longer remembered (expired or evicted); the conversation carries the id to answer with.
+     */
+    public Conversation open(String sessionId) {
+        // Taken first, so a result computed while a write commits is stored under the old version
+        long version = dataVersion.current();
+        List<byte[]> turns;
+        List<Map.Entry<String, byte[]>> results = new ArrayList<>();
+        synchronized (this) {
+            Session session = sessionId == null ? null : sessions.get(sessionId);
+            if (session == null) {
+                sessionId = UUID.randomUUID().toString();
+                sessions.put(sessionId, new Session());
+                totalBytes += ENTRY_OVERHEAD_BYTES;
+                created++;
+                evictOverCapacity(sessionId);
+                return new Conversation(sessionId, List.of(), List.of(), version);
+            }
+            session.lastUsedNanos = System.nanoTime();
+            turns = new ArrayList<>(session.turns);
+            session.toolResults.forEach((key, stored) -> {
+                if (stored.version() == version) {
+                    results.add(Map.entry(key, stored.result()));
+                }
+            });
+        }
+        // Decoded outside the lock
+        List<Turn> decodedTurns = turns.stream().map(ChatSessions::decodeTurn).toList();
+        List<ToolResult> decodedResults = new ArrayList<>();
+        for (int i = results.size() - 1; i >= 0; i--) {
+            String key = results.get(i).getKey();
+            int separator = key.indexOf('\0');
+            decodedResults.add(new ToolResult(key.substring(0, separator), key.substring(separator + 1),
+                    decode(results.get(i).getValue())));
+        }
+        return new Conversation(sessionId, decodedTurns, decodedResults, version);
+    }
+
+    /** Whether session {@code sessionId} is remembered and has turns; never starts a session. */
+    public synchronized boolean hasTurns(String sessionId) {
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        return session != null && !session.turns.isEmpty();
+    }
+
+    /** Remembers a finished turn, dropping the oldest ones beyond the session's caps. */
+    public void recordTurn(Conversation conversation, String prompt, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return;
+        }
+        byte[] encoded = encode(prompt + '\0' + answer);
+        synchronized (this) {
+            Session session = sessions.get(conversation.sessionId());
+            if (session == null) {
+                return;
+            }
+            session.lastUsedNanos = System.nanoTime();
+            session.turns.addLast(encoded);
+            adjust(session, encoded.length + ENTRY_OVERHEAD_BYTES, rawLength(encoded));
+            trim(session);
+            evictOverCapacity(conversation.sessionId());
+        }
+    }
+
+    /**
+     * Wraps {@code callbacks} so that a call repeating one made earlier in the chat's session,
+     * at the same data version, returns the remembered result without running the tool; other
+     * calls run and their results are remembered. Calls without a {@link Conversation} under
+     * {@link #CONVERSATION_KEY} in their tool context just run.
+     */
+    public ToolCallback[] reusingResults(ToolCallback... callbacks) {
+        return Arrays.stream(callbacks).map(Reusing::new).toArray(ToolCallback[]::new);
+    }
+
+    public synchronized ChatSessionStats stats() {
+        int turns = 0;
+        int results = 0;
+        for (Session session : sessions.values()) {
+            turns += session.turns.size();
+            results += session.toolResults.size();
+        }
+        return new ChatSessionStats(sessions.size(), maxSessions, turns, results, totalBytes, maxTotalBytes,
+                rawBytes, created, expired, evicted, trimmed, toolResultsStored, toolResultsReused);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private String remembered(Conversation conversation, String tool, String arguments) {
+        byte[] result;
+        synchronized (this) {
+            Session session = sessions.get(conversation.sessionId());
+            StoredResult stored = session == null ? null : session.toolResults.get(key(tool, arguments));
+            if (stored == null || stored.version() != conversation.version()
+                    || stored.version() != dataVersion.current()) {
+                return null;
+            }
+            toolResultsReused++;
+            result = stored.result();
+        }
+        return decode(result);
+    }
+
+    private void remember(Conversation conversation, String tool, String arguments, String result) {
+        if (result == null) {
+            return;
+        }
+        String key = key(tool, arguments);
+        byte[] encoded = encode(result);
+        synchronized (this) {
+            Session session = sessions.get(conversation.sessionId());
+            if (session == null) {
+                return;
+            }
+            StoredResult replaced = session.toolResults.remove(key);
+            if (replaced != null) {
+                adjust(session, -size(key, replaced.result()), -rawSize(key, replaced.result()));
+            }
+            // Results of earlier data versions can never be reused again
+            Iterator<Map.Entry<String, StoredResult>> stale = session.toolResults.entrySet().iterator();
+            while (stale.hasNext()) {
+                Map.Entry<String, StoredResult> entry = stale.next();
+                if (entry.getValue().version() != conversation.version()) {
+                    adjust(session, -size(entry.getKey(), entry.getValue().result()),
+                            -rawSize(entry.getKey(), entry.getValue().result()));
+                    stale.remove();
+                }
+            }
+            session.toolResults.put(key, new StoredResult(conversation.version(), encoded));
+            adjust(session, size(key, encoded), rawSize(key, encoded));
+            toolResultsStored++;
+            trim(session);
+            evictOverCapacity(conversation.sessionId());
+        }
+    }
+
+    // Oldest tool results go first: the turns carry the answers the model gave from them
+    private void trim(Session session) {
+        Iterator<Map.Entry<String, StoredResult>> oldest = session.toolResults.entrySet().iterator();
+        while (oldest.hasNext() && (session.toolResults.size() > maxToolResults || session.bytes > maxSessionBytes)) {
+            Map.Entry<String, StoredResult> entry = oldest.next();
+            adjust(session, -size(entry.getKey(), entry.getValue().result()),
+                    -rawSize(entry.getKey(), entry.getValue().result()));
+            oldest.remove();
+            trimmed++;
+        }
+        while (session.turns.size() > maxTurns
+                || (session.bytes > maxSessionBytes && session.turns.size() > 1)) {
+            byte[] turn = session.turns.removeFirst();
+            adjust(session, -(turn.length + ENTRY_OVERHEAD_BYTES), -rawLength(turn));
+            trimmed++;
+        }
+    }
+
+    // Least recently used sessions go first, but never the one being written to
+    private void evictOverCapacity(String current) {
+        Iterator<Map.Entry<String, Session>> oldest = sessions.entrySet().iterator();
+        while (oldest.hasNext() && (sessions.size() > maxSessions || totalBytes > maxTotalBytes)) {
+            Map.Entry<String, Session> entry = oldest.next();
+            if (entry.getKey().equals(current)) {
+                continue;
+            }
+            drop(entry.getValue());
+            oldest.remove();
+            evicted++;
+        }
+    }
+
+    synchronized void expireIdle() {
+        long now = System.nanoTime();
+        Iterator<Session> oldest = sessions.values().iterator();
+        while (oldest.hasNext()) {
+            Session session = oldest.next();
+            if (now - session.lastUsedNanos < idleTimeoutNanos) {
+                // Access order: every later session was used more recently
+                break;
+            }
+            drop(session);
+            oldest.remove();
+            expired++;
+        }
+    }
+
+    private void drop(Session session) {
+        totalBytes -= session.bytes;
+        for (byte[] turn : session.turns) {
+            rawBytes -= rawLength(turn);
+        }
+        session.toolResults.forEach((key, stored) -> rawBytes -= rawSize(key, stored.result()));
+    }
+
+    private void adjust(Session session, long bytes, long raw) {
+        session.bytes += bytes;
+        totalBytes += bytes;
+        rawBytes += raw;
+    }
+
+    private static String key(String tool, String arguments) {
+        return tool + '\0' + (arguments == null ? "" : arguments.strip());
+    }
+
+    private static long size(String key, byte[] result) {
+        return key.length() + result.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static long rawSize(String key, byte[] result) {
+        return key.length() + rawLength(result);
+    }
+
+    private static Turn decodeTurn(byte[] encoded) {
+        String text = decode(encoded);
+        int separator = text.indexOf('\0');
+        return new Turn(text.substring(0, separator), text.substring(separator + 1));
+    }
+
+    /** UTF-8 after a one-byte header; deflated (with the raw length) when that is smaller. */
+    static byte[] encode(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= COMPRESS_MIN_BYTES) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                deflater.setInput(utf8);
+                deflater.finish();
+                byte[] buffer = new byte[utf8.length];
+                int length = deflater.deflate(buffer);
+                if (deflater.finished() && length + 5 < utf8.length) {
+                    byte[] encoded = new byte[length + 5];
+                    encoded[0] = DEFLATED;
+                    writeInt(encoded, utf8.length);
+                    System.arraycopy(buffer, 0, encoded, 5, length);
+                    return encoded;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        byte[] encoded = new byte[utf8.length + 1];
+        encoded[0] = RAW;
+        System.arraycopy(utf8, 0, encoded, 1, utf8.length);
+        return encoded;
+    }
+
+    static String decode(byte[] encoded) {
+        if (encoded[0] == RAW) {
+            return new String(encoded, 1, encoded.length - 1, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(encoded, 5, encoded.length - 5);
+            byte[] utf8 = new byte[rawLength(encoded)];
+            if (inflater.inflate(utf8) != utf8.length) {
+                throw new IllegalStateException("Corrupt chat memory entry");
+            }
+            return new String(utf8, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt chat memory entry", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int rawLength(byte[] encoded) {
+        if (encoded[0] == RAW) {
+            return encoded.length - 1;
+        }
+        return ((encoded[1] & 0xff) << 24) | ((encoded[2] & 0xff) << 16) | ((encoded[3] & 0xff) << 8)
+                | (encoded[4] & 0xff);
+    }
+
+    private static void writeInt(byte[] target, int value) {
+        target[1] = (byte) (value >>> 24);
+        target[2] = (byte) (value >>> 16);
+        target[3] = (byte) (value >>> 8);
+        target[4] = (byte) value;
+    }
+
+    private final class Reusing implements ToolCallback {
+
+        private final ToolCallback delegate;
+
+        Reusing(ToolCallback delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return delegate.call(toolInput);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            String tool = delegate.getToolDefinition().name();
+            Object context = toolContext == null ? null : toolContext.getContext().get(CONVERSATION_KEY);
+            if (!(context instanceof Conversation conversation) || UNREUSABLE_TOOLS.contains(tool)) {
+                return toolContext == null ? delegate.call(toolInput) : delegate.call(toolInput, toolContext);
+            }
+            String result = remembered(conversation, tool, toolInput);
+            if (result == null) {
+                result = delegate.call(toolInput, toolContext);
+                remember(conversation, tool, toolInput, result);
+            }
+            return result;
+        }
+    }
+}
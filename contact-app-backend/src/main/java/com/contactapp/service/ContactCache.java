@@ -0,0 +1,62 @@
+package com.contactapp.service;
+
+import com.contactapp.cache.CacheStats;
+import com.contactapp.cache.LruCache;
+import com.contactapp.dto.ContactDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of contact details by id, shared by every path that reads or writes
+ * single contacts. Writers call {@link #evictAfterCommit} so an entry is dropped only once
+ * the change is visible to the next reader's query.
+ */
+@Component
+public class ContactCache {
+
+    private final LruCache<Long, ContactDTO> cache;
+
+    public ContactCache(@Value("${contacts.cache.max-size:10000}") int maxSize,
+                        @Value("${contacts.cache.ttl:10m}") Duration ttl) {
+        this.cache = new LruCache<>("contacts", maxSize, ttl);
+    }
+
+    ContactDTO get(Long id, Function<Long, ContactDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    Map<Long, ContactDTO> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, ContactDTO>> loader) {
+        return cache.getAll(ids, loader);
+    }
+
+    void evictAfterCommit(Long id) {
+        evictAfterCommit(List.of(id));
+    }
+
+    /**
+     * Evicts {@code ids} once the current transaction commits, or immediately when there is none.
+     * Nothing is evicted on rollback, since the cached values are then still current.
+     */
+    void evictAfterCommit(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> ids.forEach(cache::invalidate));
+    }
+
+    /** Drops every entry at once, for maintenance that rewrites many rows outside ContactService. */
+    void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,52 @@
+package com.contactapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Approximate size of the contacts table for UIs that want a page count without paying
+ * for {@code COUNT(*)} on every request. Reads the planner's estimate from pg_class and
+ * caches it for a configurable interval.
+ */
+@Component
+public class ContactCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlNanos;
+    private final AtomicReference<Estimate> cached = new AtomicReference<>();
+
+    public ContactCountEstimator(JdbcTemplate jdbcTemplate,
+                                 @Value("${contacts.count-estimate.ttl:30s}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long estimate() {
+        Estimate current = cached.get();
+        long now = System.nanoTime();
+        if (current != null && now - current.takenAt() < ttlNanos) {
+            return current.total();
+        }
+        // Concurrent refreshes are harmless; the last writer wins
+        Estimate refreshed = new Estimate(queryEstimate(), now);
+        cached.set(refreshed);
+        return refreshed.total();
+    }
+
+    private long queryEstimate() {
+        Long reltuples = jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = 'contacts'::regclass", Long.class);
+        if (reltuples != null && reltuples >= 0) {
+            return reltuples;
+        }
+        // reltuples is -1 until the table has been vacuumed or analyzed
+        Long exact = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contacts", Long.class);
+        return exact != null ? exact : 0L;
+    }
+
+    private record Estimate(long total, long takenAt) {}
+}
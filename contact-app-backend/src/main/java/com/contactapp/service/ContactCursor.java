@@ -0,0 +1,37 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the (firstName, lastName, id) ordering used for keyset pagination.
+ * Encoded as URL-safe Base64 so clients treat it as an opaque token.
+ */
+public record ContactCursor(String firstName, String lastName, long id) {
+
+    private static final char SEPARATOR = '\u001f';
+
+    public static ContactCursor of(ContactDTO contact) {
+        return new ContactCursor(contact.getFirstName(), contact.getLastName(), contact.getId());
+    }
+
+    public String encode() {
+        String raw = firstName + SEPARATOR + lastName + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ContactCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+            if (parts.length == 3) {
+                return new ContactCursor(parts[0], parts[1], Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed Base64 or a non-numeric id; NumberFormatException is an IllegalArgumentException
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+}
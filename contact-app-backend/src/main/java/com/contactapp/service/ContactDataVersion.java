@@ -0,0 +1,29 @@
+package com.contactapp.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global version of the contact data, bumped after every committed write. Caches of derived
+ * results (such as search pages) include the version in their keys, so a write makes every
+ * earlier entry unreachable without having to work out which entries it affected.
+ */
+@Component
+public class ContactDataVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Bumps the version once the current transaction commits, or immediately when there is none.
+     * Readers capture the version before querying, so a result computed before the commit is
+     * always stored under the old version.
+     */
+    void bumpAfterCommit() {
+        AfterCommit.run(version::incrementAndGet);
+    }
+}
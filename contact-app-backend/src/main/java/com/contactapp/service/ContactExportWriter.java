@@ -0,0 +1,117 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes exported contacts one at a time so nothing but the current row is held in memory.
+ * Closing the writer flushes it but leaves the underlying stream open.
+ */
+abstract class ContactExportWriter implements AutoCloseable {
+
+    static ContactExportWriter open(ContactFileFormat format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(out, objectMapper);
+            case CSV -> new CsvWriter(out);
+        };
+    }
+
+    abstract void write(ContactDTO contact) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    /** One JSON object per line, same field names as the REST API. */
+    private static final class NdjsonWriter extends ContactExportWriter {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are terminated explicitly below instead of separated by Jackson's default space
+            generator.setRootValueSeparator(null);
+            // Let the generator buffer fill instead of flushing after every row
+            this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        void write(ContactDTO contact) throws IOException {
+            writer.writeValue(generator, contact);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /** RFC 4180 CSV with a header row. */
+    private static final class CsvWriter extends ContactExportWriter {
+        private static final String HEADER = "id,firstName,lastName,email,phone,company,jobTitle,address,city," +
+                "state,zipCode,country,notes,photoFileName,photoPath,createdAt,updatedAt";
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(ContactDTO c) throws IOException {
+            writer.write(String.valueOf(c.getId()));
+            field(c.getFirstName());
+            field(c.getLastName());
+            field(c.getEmail());
+            field(c.getPhone());
+            field(c.getCompany());
+            field(c.getJobTitle());
+            field(c.getAddress());
+            field(c.getCity());
+            field(c.getState());
+            field(c.getZipCode());
+            field(c.getCountry());
+            field(c.getNotes());
+            field(c.getPhotoFileName());
+            field(c.getPhotoPath());
+            field(Objects.toString(c.getCreatedAt(), null));
+            field(Objects.toString(c.getUpdatedAt(), null));
+            writer.write("\r\n");
+        }
+
+        private void field(String value) throws IOException {
+            writer.write(',');
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
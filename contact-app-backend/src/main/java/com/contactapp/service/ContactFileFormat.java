@@ -0,0 +1,51 @@
+package com.contactapp.service;
+
+import java.util.Locale;
+
+/**
+ * File formats supported by {@link ContactService#exportContacts} and {@link ContactImportService}.
+ */
+public enum ContactFileFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ContactFileFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ContactFileFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + value);
+        }
+    }
+
+    public static ContactFileFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String mimeType = contentType.split(";", 2)[0].trim();
+            for (ContactFileFormat format : values()) {
+                if (format.contentType.equalsIgnoreCase(mimeType)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type: " + contentType);
+    }
+}
@@ -0,0 +1,208 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.ImportJobStatus;
+import com.contactapp.service.ContactRecordReader.ContactRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk contact import. Uploads are spooled to a temp file and processed on a background
+ * thread, which validates each row and inserts valid rows with plain JDBC batches, one
+ * transaction per batch. Bypassing Hibernate matters here: the entity's IDENTITY ids force
+ * Hibernate to insert row by row, whereas these inserts take ids from the table's sequence
+ * default and go to Postgres as batches.
+ */
+@Service
+public class ContactImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactImportService.class);
+    private static final int MAX_JOBS_RETAINED = 100;
+
+    // Rows whose email already exists are skipped and reported as rejected (update count 0)
+    private static final String INSERT_SQL =
+            "INSERT INTO contacts (first_name, last_name, email, phone, company, job_title, address, city, " +
+            "state, zip_code, country, notes, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now()) ON CONFLICT (email) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContactRowValidator validator;
+    private final ContactDataVersion dataVersion;
+    private final ContactSemanticIndex semanticIndex;
+    private final ContactSuggestIndex suggestIndex;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    // Imports run one at a time so a large file cannot monopolise the connection pool
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("contact-import-", 0).daemon().factory());
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    public ContactImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ContactRowValidator validator,
+                                ContactDataVersion dataVersion,
+                                ContactSemanticIndex semanticIndex,
+                                ContactSuggestIndex suggestIndex,
+                                ObjectMapper objectMapper,
+                                @Value("${contacts.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.dataVersion = dataVersion;
+        this.semanticIndex = semanticIndex;
+        this.suggestIndex = suggestIndex;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Spools {@code body} to disk and queues it for import, returning the initial job status.
+     */
+    public ImportJobStatus submit(ContactFileFormat format, InputStream body) throws IOException {
+        Path spool = Files.createTempFile("contacts-import-", "." + format.getFileExtension());
+        try {
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        register(job);
+        executor.execute(() -> run(job, spool));
+        return job.status();
+    }
+
+    public Optional<ImportJobStatus> getStatus(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::status);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.id(), job);
+            // Forget the oldest finished jobs once the history is full
+            jobs.values().removeIf(j -> jobs.size() > MAX_JOBS_RETAINED && j.isFinished());
+        }
+    }
+
+    private void run(ImportJob job, Path spool) {
+        job.start();
+        log.info("Import {} started ({})", job.id(), job.format());
+        try (InputStream in = Files.newInputStream(spool);
+             ContactRecordReader reader = ContactRecordReader.open(job.format(), in, objectMapper)) {
+            List<ContactRecord> batch = new ArrayList<>(batchSize);
+            // Emails seen in the current batch; ON CONFLICT cannot resolve duplicates within one batch
+            Set<String> batchEmails = new HashSet<>();
+            ContactRecord record;
+            while ((record = reader.next()) != null) {
+                job.rowRead();
+                String problem = record.error() != null ? record.error() : validator.validate(record.contact());
+                if (problem == null && !batchEmails.add(record.contact().getEmail())) {
+                    problem = "Duplicate email: " + record.contact().getEmail();
+                }
+                if (problem != null) {
+                    job.reject(record.row(), problem);
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    insertBatch(job, batch);
+                    batch.clear();
+                    batchEmails.clear();
+                }
+            }
+            insertBatch(job, batch);
+            job.complete();
+            log.info("Import {} completed: {}", job.id(), job.status());
+        } catch (Exception e) {
+            log.error("Import {} failed", job.id(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool file {}", spool, e);
+            }
+        }
+    }
+
+    private void insertBatch(ImportJob job, List<ContactRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ContactDTO c = batch.get(i).contact();
+                        ps.setString(1, c.getFirstName());
+                        ps.setString(2, c.getLastName());
+                        ps.setString(3, c.getEmail());
+                        ps.setString(4, c.getPhone());
+                        ps.setString(5, c.getCompany());
+                        ps.setString(6, c.getJobTitle());
+                        ps.setString(7, c.getAddress());
+                        ps.setString(8, c.getCity());
+                        ps.setString(9, c.getState());
+                        ps.setString(10, c.getZipCode());
+                        ps.setString(11, c.getCountry());
+                        ps.setString(12, c.getNotes());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }));
+
+        int imported = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                job.reject(batch.get(i).row(), "Email already exists: " + batch.get(i).contact().getEmail());
+            } else {
+                imported++;
+            }
+        }
+        job.imported(imported);
+        if (imported > 0) {
+            // The batch has committed; new rows can change search results
+            dataVersion.bumpAfterCommit();
+            semanticIndex.resyncAfterCommit();
+            suggestIndex.rebuildAfterCommit();
+        }
+    }
+}
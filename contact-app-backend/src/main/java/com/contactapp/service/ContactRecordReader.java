@@ -0,0 +1,200 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads imported contacts one record at a time. A record that cannot be parsed is returned
+ * with an error instead of aborting the whole file. Accepts the files written by
+ * {@link ContactExportWriter}; server-managed fields such as id and timestamps are ignored.
+ */
+abstract class ContactRecordReader implements AutoCloseable {
+
+    /** One input record; exactly one of {@code contact} and {@code error} is set. */
+    record ContactRecord(long row, ContactDTO contact, String error) {}
+
+    protected final BufferedReader reader;
+    protected long row;
+
+    private ContactRecordReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    static ContactRecordReader open(ContactFileFormat format, InputStream in, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonReader(in, objectMapper);
+            case CSV -> new CsvReader(in);
+        };
+    }
+
+    /** Returns the next record, or {@code null} at end of input. */
+    abstract ContactRecord next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /** One JSON object per line; blank lines are skipped. */
+    private static final class NdjsonReader extends ContactRecordReader {
+        private final ObjectReader objectReader;
+
+        NdjsonReader(InputStream in, ObjectMapper objectMapper) {
+            super(in);
+            this.objectReader = objectMapper.readerFor(ContactDTO.class);
+        }
+
+        @Override
+        ContactRecord next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            row++;
+            try {
+                return new ContactRecord(row, objectReader.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return new ContactRecord(row, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV; the header row names the columns using ContactDTO property names. A record
+     * longer than {@link #MAX_RECORD_CHARS}, typically one with an unterminated quoted field, is
+     * rejected, and reading resumes at the line after the one where it started.
+     */
+    private static final class CsvReader extends ContactRecordReader {
+        private static final int MAX_RECORD_CHARS = 256 * 1024;
+
+        private final Map<String, Integer> columns = new HashMap<>();
+        // Set by readFields when it skipped a record over the length limit
+        private boolean tooLong;
+
+        CsvReader(InputStream in) throws IOException {
+            super(in);
+            List<String> header = readFields();
+            if (tooLong) {
+                throw new IllegalArgumentException("CSV header is longer than " + MAX_RECORD_CHARS + " characters");
+            }
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // Tolerate a UTF-8 byte order mark written by spreadsheet tools
+                columns.put(header.get(i).replace("\uFEFF", "").trim(), i);
+            }
+            if (!columns.containsKey("firstName") || !columns.containsKey("lastName") || !columns.containsKey("email")) {
+                throw new IllegalArgumentException("CSV header must include firstName, lastName and email");
+            }
+        }
+
+        @Override
+        ContactRecord next() throws IOException {
+            List<String> fields;
+            do {
+                fields = readFields();
+                if (tooLong) {
+                    tooLong = false;
+                    row++;
+                    return new ContactRecord(row, null, "Row " + row + " is longer than " + MAX_RECORD_CHARS
+                            + " characters; is a quoted field missing its closing quote?");
+                }
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+            row++;
+            ContactDTO contact = new ContactDTO();
+            contact.setFirstName(field(fields, "firstName"));
+            contact.setLastName(field(fields, "lastName"));
+            contact.setEmail(field(fields, "email"));
+            contact.setPhone(field(fields, "phone"));
+            contact.setCompany(field(fields, "company"));
+            contact.setJobTitle(field(fields, "jobTitle"));
+            contact.setAddress(field(fields, "address"));
+            contact.setCity(field(fields, "city"));
+            contact.setState(field(fields, "state"));
+            contact.setZipCode(field(fields, "zipCode"));
+            contact.setCountry(field(fields, "country"));
+            contact.setNotes(field(fields, "notes"));
+            return new ContactRecord(row, contact, null);
+        }
+
+        private String field(List<String> fields, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        // Reads one record, honouring quoted fields that contain commas, quotes or line breaks.
+        // Past MAX_RECORD_CHARS it rewinds, skips the record's first line and sets tooLong.
+        private List<String> readFields() throws IOException {
+            reader.mark(MAX_RECORD_CHARS + 2);
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int length = 1;
+            while (c != -1) {
+                if (length > MAX_RECORD_CHARS) {
+                    reader.reset();
+                    do {
+                        c = reader.read();
+                    } while (c != '\n' && c != -1);
+                    tooLong = true;
+                    return null;
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        c = reader.read();
+                        length++;
+                        if (c == '"') {
+                            field.append('"');
+                        } else {
+                            // The closing quote; c is the character after it
+                            quoted = false;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+                length++;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Validates contacts arriving through the bulk endpoints, where a bad row is reported
+ * rather than failing the whole request.
+ */
+@Component
+class ContactRowValidator {
+
+    private final Validator validator;
+
+    ContactRowValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /** Returns a readable description of the constraint violations, or {@code null} if the row is valid. */
+    String validate(ContactDTO contact) {
+        // Blank optional fields are stored as NULL, which the phone column constraint allows
+        if (contact.getPhone() != null && contact.getPhone().isBlank()) {
+            contact.setPhone(null);
+        }
+        Set<ConstraintViolation<ContactDTO>> violations = validator.validate(contact);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
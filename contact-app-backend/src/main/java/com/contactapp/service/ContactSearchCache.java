@@ -0,0 +1,58 @@
+package com.contactapp.service;
+
+import com.contactapp.cache.CacheStats;
+import com.contactapp.cache.LruCache;
+import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.SliceResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Caches search result pages by (mode, normalized term, page, size) under the current
+ * {@link ContactDataVersion}. Entries from before the latest write are never served and
+ * age out of the LRU order, so results are never stale.
+ */
+@Component
+public class ContactSearchCache {
+
+    // Page and slice results of the same search are cached separately
+    private enum Kind { PAGE, SLICE }
+
+    private record Key(long version, Kind kind, SearchMode mode, String term, int page, int size) {}
+
+    private final ContactDataVersion dataVersion;
+    private final LruCache<Key, Object> cache;
+
+    public ContactSearchCache(ContactDataVersion dataVersion,
+                              @Value("${contacts.search-cache.max-size:1000}") int maxSize) {
+        this.dataVersion = dataVersion;
+        this.cache = new LruCache<>("search", maxSize, null);
+    }
+
+    /** Returns the cached page for the search, running {@code search} on a miss. */
+    Page<ContactDTO> getPage(SearchMode mode, String normalizedTerm, int page, int size,
+                             Supplier<Page<ContactDTO>> search) {
+        return get(Kind.PAGE, mode, normalizedTerm, page, size, search);
+    }
+
+    /** Returns the cached slice for the search, running {@code search} on a miss. */
+    SliceResponse<ContactDTO> getSlice(SearchMode mode, String normalizedTerm, int page, int size,
+                                       Supplier<SliceResponse<ContactDTO>> search) {
+        return get(Kind.SLICE, mode, normalizedTerm, page, size, search);
+    }
+
+    // Safe because the key's kind determines the type of the cached value, and only getPage
+    // and getSlice choose the kind
+    @SuppressWarnings("unchecked")
+    private <T> T get(Kind kind, SearchMode mode, String normalizedTerm, int page, int size, Supplier<T> search) {
+        Key key = new Key(dataVersion.current(), kind, mode, normalizedTerm, page, size);
+        return (T) cache.get(key, k -> search.get());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
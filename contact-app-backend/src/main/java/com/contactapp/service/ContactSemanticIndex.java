@@ -0,0 +1,403 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.SemanticIndexStats;
+import com.contactapp.vector.HashingEmbeddingModel;
+import com.contactapp.vector.HnswIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedding-based search over what contacts do: the job title, company and notes of each
+ * contact are embedded and kept in an in-process {@link HnswIndex}, so "who do I know in
+ * cloud infrastructure" finds contacts that no substring search would.
+ * <p>
+ * Embeddings come from Spring AI's Ollama embedding model ({@code contacts.semantic.embedding=ollama})
+ * or from the local {@link HashingEmbeddingModel} stand-in ({@code hashing}). The index is
+ * maintained in the background by a single worker: ContactService writes queue the changed
+ * contact after commit, bulk imports queue a resync. It is saved to
+ * {@code contacts.semantic.index-file} with a hash of each contact's text, so a restart
+ * reloads the graph and re-embeds only contacts changed in the meantime. Stats are at
+ * /api/stats/semantic-index.
+ */
+@Component
+public class ContactSemanticIndex implements ApplicationRunner {
+
+    /** A search result: a contact id and its cosine similarity to the query. */
+    public record Match(long contactId, float score) {}
+
+    /** Search results, and whether every contact could be searched. */
+    public record Matches(List<Match> matches, boolean complete) {}
+
+    private static final Logger log = LoggerFactory.getLogger(ContactSemanticIndex.class);
+    private static final int FILE_MAGIC = 0x43534958;
+    private static final int EMBED_BATCH_SIZE = 32;
+    private static final int HNSW_M = 16;
+    private static final int HNSW_EF_CONSTRUCTION = 100;
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final Duration SAVE_INTERVAL = Duration.ofSeconds(30);
+    private static final String CONTACT_TEXT_SQL = "SELECT id, job_title, company, notes FROM contacts";
+
+    private final EmbeddingModel embeddingModel;
+    private final String modelId;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path indexFile;
+    private final int efSearch;
+    // All index writes, embedding calls and saves run on this one thread, in submission order
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("semantic-index").daemon().factory());
+    // Contact id -> text to embed; an empty text removes the contact. Newer changes overwrite older ones
+    private final Map<Long, String> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicBoolean resyncRequested = new AtomicBoolean();
+    // Hash of the text each indexed contact was embedded from; only touched by the worker
+    private final Map<Long, Long> textHashes = new HashMap<>();
+    private volatile HnswIndex index;
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    private final AtomicLong embedded = new AtomicLong();
+    private final AtomicLong embedNanos = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong searchNanos = new AtomicLong();
+    private volatile long lastResyncMillis;
+    private volatile Instant lastSaved;
+    private volatile String lastFailure;
+
+    public ContactSemanticIndex(ObjectProvider<EmbeddingModel> ollamaEmbeddingModel,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${contacts.semantic.embedding:ollama}") String embedding,
+                                @Value("${spring.ai.ollama.embedding.options.model:nomic-embed-text}") String ollamaModel,
+                                @Value("${contacts.semantic.hashing-dimensions:384}") int hashingDimensions,
+                                @Value("${contacts.semantic.index-file:data/semantic-index.bin}") String indexFile,
+                                @Value("${contacts.semantic.ef-search:64}") int efSearch) {
+        switch (embedding.toLowerCase(Locale.ROOT)) {
+            case "ollama" -> {
+                this.embeddingModel = ollamaEmbeddingModel.getObject();
+                this.modelId = "ollama:" + ollamaModel;
+            }
+            case "hashing" -> {
+                this.embeddingModel = new HashingEmbeddingModel(hashingDimensions);
+                this.modelId = "hashing:" + hashingDimensions;
+            }
+            default -> throw new IllegalArgumentException("Unknown contacts.semantic.embedding: " + embedding);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.indexFile = Paths.get(indexFile);
+        this.efSearch = efSearch;
+    }
+
+    /** Loads the saved index and brings it up to date with the database, in the background. */
+    @Override
+    public void run(ApplicationArguments args) {
+        worker.execute(() -> {
+            load();
+            resyncRequested.set(true);
+            drain();
+        });
+        worker.scheduleWithFixedDelay(this::saveIfDirty, SAVE_INTERVAL.toMillis(), SAVE_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The contacts whose text is most similar to {@code query}, best first. {@code complete} is
+     * false before the first build completes, when results cover only the contacts indexed so
+     * far, and when the query cannot be embedded (e.g. Ollama is down), when there are none.
+     */
+    public Matches search(String query, int limit) {
+        long started = System.nanoTime();
+        HnswIndex current = index;
+        if (current == null || query == null || query.isBlank()) {
+            return new Matches(List.of(), ready);
+        }
+        float[] vector;
+        try {
+            vector = embeddingModel.embed(query);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            lastFailure = Instant.now() + ": " + e.getMessage();
+            log.warn("Cannot embed semantic search query: {}", e.getMessage());
+            return new Matches(List.of(), false);
+        }
+        List<Match> matches = current.search(vector, limit, Math.max(efSearch, limit)).stream()
+                .map(match -> new Match(match.id(), match.score()))
+                .toList();
+        searches.incrementAndGet();
+        searchNanos.addAndGet(System.nanoTime() - started);
+        return new Matches(matches, ready);
+    }
+
+    /** Queues re-embedding the contact once the current transaction commits. */
+    void updateAfterCommit(ContactDTO contact) {
+        String text = textOf(contact.getJobTitle(), contact.getCompany(), contact.getNotes());
+        AfterCommit.run(() -> enqueue(contact.getId(), text));
+    }
+
+    /** Queues removing the contact once the current transaction commits. */
+    void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> enqueue(id, ""));
+    }
+
+    /** Queues a comparison of every contact with the index, e.g. after a bulk import. */
+    void resyncAfterCommit() {
+        AfterCommit.run(() -> {
+            resyncRequested.set(true);
+            scheduleDrain(0);
+        });
+    }
+
+    public SemanticIndexStats stats() {
+        HnswIndex current = index;
+        long count = embedded.get();
+        long searchCount = searches.get();
+        long fileBytes;
+        try {
+            fileBytes = Files.exists(indexFile) ? Files.size(indexFile) : 0;
+        } catch (IOException e) {
+            fileBytes = 0;
+        }
+        return new SemanticIndexStats(modelId, ready, current == null ? 0 : current.size(),
+                current == null ? 0 : current.deletedCount(), current == null ? 0 : current.dimensions(),
+                pending.size(), count, count == 0 ? 0 : embedNanos.get() / count / 1_000, failures.get(),
+                searchCount, searchCount == 0 ? 0 : searchNanos.get() / searchCount / 1_000, lastResyncMillis,
+                current == null ? 0 : current.estimatedBytes(), fileBytes, lastSaved, lastFailure);
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        worker.shutdown();
+        if (worker.awaitTermination(10, TimeUnit.SECONDS)) {
+            saveIfDirty();
+        }
+    }
+
+    // The text a contact is found by: what they do and where, not who they are
+    static String textOf(String jobTitle, String company, String notes) {
+        return Stream.of(jobTitle, company, notes)
+                .filter(value -> value != null && !value.isBlank())
+                .map(String::strip)
+                .collect(Collectors.joining(". "));
+    }
+
+    private static long hash(String text) {
+        return UUID.nameUUIDFromBytes(text.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    private void enqueue(Long id, String text) {
+        pending.put(id, text);
+        scheduleDrain(0);
+    }
+
+    private void scheduleDrain(long delayMillis) {
+        if (drainScheduled.compareAndSet(false, true)) {
+            worker.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            if (resyncRequested.getAndSet(false)) {
+                try {
+                    resync();
+                } catch (RuntimeException e) {
+                    resyncRequested.set(true);
+                    throw e;
+                }
+            }
+            while (!pending.isEmpty()) {
+                Map<Long, String> changes = new HashMap<>(pending);
+                apply(changes);
+                // Keep changes that arrived while these were embedded
+                changes.forEach(pending::remove);
+            }
+            compactIfNeeded();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            lastFailure = Instant.now() + ": " + e.getMessage();
+            log.warn("Semantic index update failed, retrying in {}: {}", RETRY_DELAY, e.getMessage());
+            scheduleDrain(RETRY_DELAY.toMillis());
+        }
+    }
+
+    // Compares every contact's text with what was indexed and applies the differences
+    private void resync() {
+        long started = System.nanoTime();
+        Map<Long, String> changes = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = jdbcTemplate.queryForStream(connection -> {
+                PreparedStatement statement = connection.prepareStatement(CONTACT_TEXT_SQL);
+                statement.setFetchSize(1000);
+                return statement;
+            }, (rs, rowNum) -> new Object[]{rs.getLong("id"),
+                    textOf(rs.getString("job_title"), rs.getString("company"), rs.getString("notes"))})) {
+                rows.forEach(row -> {
+                    long id = (Long) row[0];
+                    String text = (String) row[1];
+                    seen.add(id);
+                    Long indexed = textHashes.get(id);
+                    if (text.isEmpty() ? indexed != null : indexed == null || indexed != hash(text)) {
+                        changes.put(id, text);
+                    }
+                });
+            }
+        });
+        for (Long id : textHashes.keySet()) {
+            if (!seen.contains(id)) {
+                changes.put(id, "");
+            }
+        }
+        apply(changes);
+        lastResyncMillis = (System.nanoTime() - started) / 1_000_000;
+        if (!ready) {
+            ready = true;
+            log.info("Semantic index ready: {} contacts, {} embedded now, in {} ms ({})",
+                    textHashes.size(), changes.size(), lastResyncMillis, modelId);
+        }
+    }
+
+    private void apply(Map<Long, String> changes) {
+        List<Map.Entry<Long, String>> toEmbed = new ArrayList<>();
+        for (Map.Entry<Long, String> change : changes.entrySet()) {
+            if (change.getValue().isEmpty()) {
+                if (textHashes.remove(change.getKey()) != null) {
+                    index.remove(change.getKey());
+                    dirty = true;
+                }
+            } else if (!Long.valueOf(hash(change.getValue())).equals(textHashes.get(change.getKey()))) {
+                toEmbed.add(change);
+            }
+        }
+        for (int from = 0; from < toEmbed.size(); from += EMBED_BATCH_SIZE) {
+            List<Map.Entry<Long, String>> batch = toEmbed.subList(from, Math.min(from + EMBED_BATCH_SIZE, toEmbed.size()));
+            long started = System.nanoTime();
+            List<float[]> vectors = embeddingModel.embed(batch.stream().map(Map.Entry::getValue).toList());
+            embedNanos.addAndGet(System.nanoTime() - started);
+            embedded.addAndGet(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (index == null) {
+                    index = new HnswIndex(vectors.get(i).length, HNSW_M, HNSW_EF_CONSTRUCTION);
+                }
+                index.add(batch.get(i).getKey(), vectors.get(i));
+                textHashes.put(batch.get(i).getKey(), hash(batch.get(i).getValue()));
+            }
+            dirty = true;
+        }
+    }
+
+    // Removed contacts stay in the graph for routing; rebuild once they are a third of it
+    private void compactIfNeeded() {
+        HnswIndex current = index;
+        if (current != null && current.deletedCount() > 1000 && current.deletedCount() * 2 > current.size()) {
+            index = current.rebuilt();
+            dirty = true;
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("not a semantic index file");
+            }
+            String savedModel = in.readUTF();
+            if (!savedModel.equals(modelId)) {
+                log.info("Semantic index in {} was built with {}, rebuilding with {}", indexFile, savedModel, modelId);
+                return;
+            }
+            int count = in.readInt();
+            Map<Long, Long> hashes = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                hashes.put(in.readLong(), in.readLong());
+            }
+            HnswIndex loaded = in.readBoolean() ? HnswIndex.read(in) : null;
+            textHashes.putAll(hashes);
+            index = loaded;
+            log.info("Loaded semantic index of {} contacts from {}", hashes.size(), indexFile);
+        } catch (IOException e) {
+            log.warn("Cannot read semantic index {}, rebuilding: {}", indexFile, e.getMessage());
+        }
+    }
+
+    private void saveIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            Path parent = indexFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, ".semantic-index-", ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(FILE_MAGIC);
+                    out.writeUTF(modelId);
+                    out.writeInt(textHashes.size());
+                    for (Map.Entry<Long, Long> entry : textHashes.entrySet()) {
+                        out.writeLong(entry.getKey());
+                        out.writeLong(entry.getValue());
+                    }
+                    HnswIndex current = index;
+                    out.writeBoolean(current != null);
+                    if (current != null) {
+                        current.write(out);
+                    }
+                }
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            lastSaved = Instant.now();
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Cannot save semantic index to {}: {}", indexFile, e.getMessage());
+        }
+    }
+}
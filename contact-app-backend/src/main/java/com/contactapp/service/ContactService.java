@@ -1,122 +1,534 @@
 package com.contactapp.service;
 
+import com.contactapp.dto.ContactBatch;
 import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.ContactSuggestion;
+import com.contactapp.dto.CursorPage;
+import com.contactapp.dto.SemanticSearchResult;
+import com.contactapp.dto.SliceResponse;
 import com.contactapp.model.Contact;
 import com.contactapp.repository.ContactRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ContactService {
 
     private final ContactRepository contactRepository;
-    private static final String UPLOAD_DIR = "uploads/photos";
+    private final ContactCountEstimator countEstimator;
+    private final ContactCache contactCache;
+    private final ContactSearchCache searchCache;
+    private final ContactDataVersion dataVersion;
+    private final PhotoStorage photoStorage;
+    private final PhotoThumbnails photoThumbnails;
+    private final PhotoCleaner photoCleaner;
+    private final ContactSemanticIndex semanticIndex;
+    private final ContactSuggestIndex suggestIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final SearchMode searchMode;
+    private static final int MAX_BATCH_IDS = 1000;
+    private static final int MAX_SEMANTIC_RESULTS = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final String CONTACTS_BY_IDS_SQL =
+            "SELECT " + ContactRepository.CONTACT_COLUMNS + " FROM contacts c WHERE c.id = ANY(?)";
+
+    // Fields a merge patch may change, mapped to their columns; the rest are server-managed
+    private static final Map<String, String> PATCHABLE_COLUMNS = Map.ofEntries(
+            Map.entry("firstName", "first_name"), Map.entry("lastName", "last_name"),
+            Map.entry("email", "email"), Map.entry("phone", "phone"), Map.entry("company", "company"),
+            Map.entry("jobTitle", "job_title"), Map.entry("address", "address"), Map.entry("city", "city"),
+            Map.entry("state", "state"), Map.entry("zipCode", "zip_code"), Map.entry("country", "country"),
+            Map.entry("notes", "notes"));
+    private static final Set<String> READ_ONLY_FIELDS =
+            Set.of("id", "photoFileName", "photoPath", "createdAt", "updatedAt");
+
+    private static final RowMapper<ContactDTO> CONTACT_ROW_MAPPER = (rs, rowNum) -> ContactDTO.builder()
+            .id(rs.getLong("id"))
+            .firstName(rs.getString("first_name"))
+            .lastName(rs.getString("last_name"))
+            .email(rs.getString("email"))
+            .phone(rs.getString("phone"))
+            .company(rs.getString("company"))
+            .jobTitle(rs.getString("job_title"))
+            .address(rs.getString("address"))
+            .city(rs.getString("city"))
+            .state(rs.getString("state"))
+            .zipCode(rs.getString("zip_code"))
+            .country(rs.getString("country"))
+            .notes(rs.getString("notes"))
+            .photoFileName(rs.getString("photo_filename"))
+            .photoPath(rs.getString("photo_path"))
+            .createdAt(rs.getObject("created_at", LocalDateTime.class))
+            .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+            .build();
 
     // Constructor injection (replacing Lombok @RequiredArgsConstructor)
-    public ContactService(ContactRepository contactRepository) {
+    public ContactService(ContactRepository contactRepository,
+                          ContactCountEstimator countEstimator,
+                          ContactCache contactCache,
+                          ContactSearchCache searchCache,
+                          ContactDataVersion dataVersion,
+                          PhotoStorage photoStorage,
+                          PhotoThumbnails photoThumbnails,
+                          PhotoCleaner photoCleaner,
+                          ContactSemanticIndex semanticIndex,
+                          ContactSuggestIndex suggestIndex,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          JdbcTemplate jdbcTemplate,
+                          Validator validator,
+                          @Value("${contacts.search.mode:trigram}") String searchMode) {
         this.contactRepository = contactRepository;
+        this.countEstimator = countEstimator;
+        this.contactCache = contactCache;
+        this.searchCache = searchCache;
+        this.dataVersion = dataVersion;
+        this.photoStorage = photoStorage;
+        this.photoThumbnails = photoThumbnails;
+        this.photoCleaner = photoCleaner;
+        this.semanticIndex = semanticIndex;
+        this.suggestIndex = suggestIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.searchMode = SearchMode.from(searchMode);
     }
 
+    // Not transactional itself: the upload is stored before the transaction starts, so no
+    // connection is held while the photo streams to disk
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ContactDTO createContact(ContactDTO contactDTO, MultipartFile photoFile) throws IOException {
-        Contact contact = new Contact();
-        BeanUtils.copyProperties(contactDTO, contact, "id", "createdAt", "updatedAt", "photoPath", "photoFileName");
+        PhotoStorage.StoredPhoto photo = storePhoto(photoFile);
+        ContactDTO saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Contact contact = new Contact();
+                BeanUtils.copyProperties(contactDTO, contact, "id", "createdAt", "updatedAt", "photoPath", "photoFileName");
+                if (photo != null) {
+                    contact.setPhotoFileName(photo.originalFileName());
+                    contact.setPhotoPath(photo.path());
+                }
 
-        if (photoFile != null && !photoFile.isEmpty()) {
-            String photoInfo = savePhotoFile(photoFile);
-            String[] parts = photoInfo.split("\\|");
-            contact.setPhotoFileName(parts[0]);
-            contact.setPhotoPath(parts[1]);
+                Contact savedContact = contactRepository.save(contact);
+                dataVersion.bumpAfterCommit();
+                ContactDTO dto = convertToDTO(savedContact);
+                semanticIndex.updateAfterCommit(dto);
+                suggestIndex.updateAfterCommit(dto);
+                return dto;
+            });
+        } catch (RuntimeException e) {
+            discardPhoto(photo);
+            throw e;
         }
-
-        Contact savedContact = contactRepository.save(contact);
-        return convertToDTO(savedContact);
+        if (photo != null) {
+            photoThumbnails.generate(saved.getPhotoPath(), saved.getPhotoVersion());
+        }
+        return saved;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ContactDTO updateContact(Long id, ContactDTO contactDTO, MultipartFile photoFile) throws IOException {
-        Contact contact = contactRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
+        PhotoStorage.StoredPhoto photo = storePhoto(photoFile);
+        ContactDTO updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                Contact contact = contactRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
+
+                BeanUtils.copyProperties(contactDTO, contact, "id", "createdAt", "updatedAt", "photoPath", "photoFileName");
 
-        BeanUtils.copyProperties(contactDTO, contact, "id", "createdAt", "updatedAt", "photoPath", "photoFileName");
+                if (photo != null) {
+                    String oldPhotoPath = contact.getPhotoPath();
+                    contact.setPhotoFileName(photo.originalFileName());
+                    contact.setPhotoPath(photo.path());
+                    // Delete old photo if no longer used (re-uploading the same image keeps the same path)
+                    if (oldPhotoPath != null && !oldPhotoPath.equals(photo.path())) {
+                        photoCleaner.deleteAfterCommit(oldPhotoPath);
+                    }
+                }
 
-        if (photoFile != null && !photoFile.isEmpty()) {
-            // Delete old photo if exists
-            if (contact.getPhotoPath() != null) {
-                deletePhotoFile(contact.getPhotoPath());
+                Contact updatedContact = contactRepository.save(contact);
+                contactCache.evictAfterCommit(id);
+                dataVersion.bumpAfterCommit();
+                ContactDTO dto = convertToDTO(updatedContact);
+                semanticIndex.updateAfterCommit(dto);
+                suggestIndex.updateAfterCommit(dto);
+                return dto;
+            });
+        } catch (RuntimeException e) {
+            discardPhoto(photo);
+            throw e;
+        }
+        if (photo != null) {
+            photoThumbnails.generate(updated.getPhotoPath(), updated.getPhotoVersion());
+        }
+        return updated;
+    }
+
+    /**
+     * Applies a JSON Merge Patch (RFC 7396): fields present in {@code patch} are set, and
+     * {@code null} clears an optional field. Issues a single UPDATE of just those columns,
+     * returning the updated row, with no prior select and no entity load.
+     */
+    public ContactDTO patchContact(Long id, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+        if (patch.isEmpty()) {
+            return getContact(id);
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE contacts c SET ");
+        List<Object> args = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            String name = field.getKey();
+            if (!PATCHABLE_COLUMNS.containsKey(name)) {
+                throw new IllegalArgumentException(READ_ONLY_FIELDS.contains(name)
+                        ? "Field cannot be patched: " + name
+                        : "Unknown field: " + name);
+            }
+            if (field.getValue().isContainerNode()) {
+                throw new IllegalArgumentException("Field " + name + " must be a string or null");
             }
-            String photoInfo = savePhotoFile(photoFile);
-            String[] parts = photoInfo.split("\\|");
-            contact.setPhotoFileName(parts[0]);
-            contact.setPhotoPath(parts[1]);
         }
 
-        Contact updatedContact = contactRepository.save(contact);
-        return convertToDTO(updatedContact);
+        ContactDTO values = objectMapper.convertValue(patch, ContactDTO.class);
+        // Blank phone numbers are stored as NULL, as on import
+        if (values.getPhone() != null && values.getPhone().isBlank()) {
+            values.setPhone(null);
+        }
+        BeanWrapper bean = new BeanWrapperImpl(values);
+        for (String name : (Iterable<String>) patch::fieldNames) {
+            Set<ConstraintViolation<ContactDTO>> violations = validator.validateProperty(values, name);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(name + ": " + violations.iterator().next().getMessage());
+            }
+            sql.append(PATCHABLE_COLUMNS.get(name)).append(" = ?, ");
+            args.add(bean.getPropertyValue(name));
+        }
+        sql.append("updated_at = now() WHERE c.id = ? RETURNING ").append(ContactRepository.CONTACT_COLUMNS);
+        args.add(id);
+
+        ContactDTO patched = jdbcTemplate.query(sql.toString(), CONTACT_ROW_MAPPER, args.toArray()).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
+        contactCache.evictAfterCommit(id);
+        dataVersion.bumpAfterCommit();
+        semanticIndex.updateAfterCommit(patched);
+        suggestIndex.updateAfterCommit(patched);
+        return patched;
     }
 
+    /**
+     * Served from {@link ContactCache} when possible. Runs without a transaction of its own, so
+     * a cache hit does not even borrow a connection; only misses reach the database.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ContactDTO getContact(Long id) {
-        Contact contact = contactRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
-        return convertToDTO(contact);
+        return contactCache.get(id, key -> contactRepository.findById(key)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new RuntimeException("Contact not found with id: " + key)));
+    }
+
+    /**
+     * Resolves many contacts, from {@link ContactCache} where possible and otherwise with one
+     * {@code id = ANY(?)} query. Results follow the order of
+     * {@code ids} (repeats collapsed to the first occurrence); unknown ids are reported rather
+     * than raising an error.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ContactBatch getContacts(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids can be requested at once");
+        }
+        if (requested.isEmpty()) {
+            return new ContactBatch(List.of(), List.of());
+        }
+
+        // Only ids missing from the cache are queried
+        Map<Long, ContactDTO> found = contactCache.getAll(requested, missing -> {
+            Map<Long, ContactDTO> loaded = new HashMap<>();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(CONTACTS_BY_IDS_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint", missing.toArray()));
+                return ps;
+            }, rs -> {
+                ContactDTO contact = CONTACT_ROW_MAPPER.mapRow(rs, 0);
+                loaded.put(contact.getId(), contact);
+            });
+            return loaded;
+        });
+
+        List<ContactDTO> contacts = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            ContactDTO contact = found.get(id);
+            if (contact != null) {
+                contacts.add(contact);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ContactBatch(contacts, missingIds);
     }
 
+    // List and search reads project directly into ContactDTO inside read-only transactions,
+    // so Hibernate keeps no managed entities, snapshots or flushes for them
+    @Transactional(readOnly = true)
     public Page<ContactDTO> getAllContacts(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return contactRepository.findAllOrderByName(pageable)
-                .map(this::convertToDTO);
+        return contactRepository.findAllOrderByName(pageable);
     }
 
+    /**
+     * Keyset pagination over (firstName, lastName, id). Pass {@code null} or an empty cursor
+     * for the first page, then the returned {@code nextCursor}. Unlike OFFSET paging the cost
+     * does not grow with depth, and rows inserted mid-scroll cannot shift later pages.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ContactDTO> getContactsAfter(String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        // Fetch one extra row to learn whether another page exists without counting
+        Limit limit = Limit.of(size + 1);
+        List<ContactDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = contactRepository.findFirstOrderByName(limit);
+        } else {
+            ContactCursor after = ContactCursor.decode(cursor.trim());
+            rows = contactRepository.findAfterOrderByName(after.firstName(), after.lastName(), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<ContactDTO> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? ContactCursor.of(page.get(size - 1)).encode() : null;
+        return new CursorPage<>(page, size, nextCursor, hasNext);
+    }
+
+    /**
+     * Contacts whose job title, company and notes are closest in meaning to {@code query}, from
+     * the {@link ContactSemanticIndex}. Contacts deleted since the index was last updated are
+     * left out.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public SemanticSearchResult semanticSearch(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
+        }
+        if (limit < 1 || limit > MAX_SEMANTIC_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEMANTIC_RESULTS);
+        }
+        ContactSemanticIndex.Matches found = semanticIndex.search(query, limit);
+        List<ContactSemanticIndex.Match> matches = found.matches();
+        Map<Long, ContactDTO> contacts = new HashMap<>();
+        getContacts(matches.stream().map(ContactSemanticIndex.Match::contactId).toList()).contacts()
+                .forEach(contact -> contacts.put(contact.getId(), contact));
+        List<SemanticSearchResult.Match> results = matches.stream()
+                .filter(match -> contacts.containsKey(match.contactId()))
+                .map(match -> new SemanticSearchResult.Match(contacts.get(match.contactId()), match.score()))
+                .toList();
+        return new SemanticSearchResult(results, found.complete());
+    }
+
+    /**
+     * Type-ahead completions of contact names, emails and companies starting with
+     * {@code prefix}, from the in-memory {@link ContactSuggestIndex}; never queries the database.
+     */
+    public List<ContactSuggestion> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return suggestIndex.suggest(prefix, limit).stream()
+                .map(completion -> new ContactSuggestion(completion.text(), completion.field(), completion.contacts(),
+                        completion.contactId()))
+                .toList();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<ContactDTO> searchContacts(String searchTerm, int page, int size) {
+        return searchContacts(searchTerm, null, page, size);
+    }
+
+    /**
+     * Search results are served from {@link ContactSearchCache} until the next write. Runs
+     * without a transaction of its own so that a cache hit borrows no connection; on a miss
+     * the repository query runs in its own read-only transaction. {@code mode} overrides the
+     * configured {@code contacts.search.mode} when not {@code null}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<ContactDTO> searchContacts(String searchTerm, SearchMode mode, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllContacts(page, size);
         }
-        return contactRepository.searchContacts(searchTerm.trim(), pageable)
-                .map(this::convertToDTO);
+        SearchMode active = mode == null ? searchMode : mode;
+        // Matching is case-insensitive in every mode, so the lower-cased term is the cache key
+        String term = searchTerm.trim().toLowerCase(Locale.ROOT);
+        return searchCache.getPage(active, term, page, size, () -> switch (active) {
+            case TRIGRAM -> contactRepository.searchContactsByTrigram(term, containsPattern(term), pageable);
+            case LIKE -> contactRepository.searchContacts(term, pageable);
+            case FULLTEXT -> {
+                String query = tsQuery(term, ":*", " & ");
+                yield query == null ? Page.empty(pageable)
+                        : contactRepository.searchContactsByFullText(query, tsQuery(term, "", " | "), pageable);
+            }
+        });
+    }
+
+    /**
+     * Count-free variant of {@link #getAllContacts}: no COUNT(*) is issued, and the total is
+     * the cached table estimate from {@link ContactCountEstimator}.
+     */
+    @Transactional(readOnly = true)
+    public SliceResponse<ContactDTO> getAllContactsSlice(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Slice<ContactDTO> contacts = contactRepository.findAllOrderByNameSlice(pageable);
+        return SliceResponse.of(contacts, countEstimator.estimate());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public SliceResponse<ContactDTO> searchContactsSlice(String searchTerm, int page, int size) {
+        return searchContactsSlice(searchTerm, null, page, size);
+    }
+
+    /**
+     * Count-free variant of {@link #searchContacts}. No total is reported for search results.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public SliceResponse<ContactDTO> searchContactsSlice(String searchTerm, SearchMode mode, int page, int size) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return getAllContactsSlice(page, size);
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        SearchMode active = mode == null ? searchMode : mode;
+        String term = searchTerm.trim().toLowerCase(Locale.ROOT);
+        return searchCache.getSlice(active, term, page, size, () -> {
+            Slice<ContactDTO> results = switch (active) {
+                case TRIGRAM -> contactRepository.searchContactsByTrigramSlice(term, containsPattern(term), pageable);
+                case LIKE -> contactRepository.searchContactsSlice(term, pageable);
+                case FULLTEXT -> {
+                    String query = tsQuery(term, ":*", " & ");
+                    yield query == null ? new SliceImpl<>(List.of(), pageable, false)
+                            : contactRepository.searchContactsByFullTextSlice(query, tsQuery(term, "", " | "), pageable);
+                }
+            };
+            return SliceResponse.of(results, null);
+        });
+    }
+
+    /**
+     * Streams every contact to {@code out} in id order and returns the number written.
+     * Rows are read through a forward-only cursor and written as they arrive, so memory use
+     * stays flat regardless of table size. Flushes but does not close {@code out}.
+     */
+    @Transactional(readOnly = true)
+    public long exportContacts(ContactFileFormat format, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<ContactDTO> contacts = contactRepository.streamAllOrderById();
+             ContactExportWriter writer = ContactExportWriter.open(format, out, objectMapper)) {
+            for (Iterator<ContactDTO> it = contacts.iterator(); it.hasNext(); ) {
+                writer.write(it.next());
+                count++;
+            }
+        }
+        out.flush();
+        return count;
     }
 
-    public void deleteContact(Long id) throws IOException {
+    public void deleteContact(Long id) {
         Contact contact = contactRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Contact not found with id: " + id));
 
-        // Delete photo file if exists
+        // Delete photo file if exists (after commit, and only once no other contact shares it)
         if (contact.getPhotoPath() != null) {
-            deletePhotoFile(contact.getPhotoPath());
+            photoCleaner.deleteAfterCommit(contact.getPhotoPath());
         }
 
         contactRepository.deleteById(id);
+        contactCache.evictAfterCommit(id);
+        dataVersion.bumpAfterCommit();
+        semanticIndex.removeAfterCommit(id);
+        suggestIndex.removeAfterCommit(id);
     }
 
-    private String savePhotoFile(MultipartFile file) throws IOException {
-        String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path uploadPath = Paths.get(UPLOAD_DIR);
+    private PhotoStorage.StoredPhoto storePhoto(MultipartFile photoFile) throws IOException {
+        return photoFile != null && !photoFile.isEmpty() ? photoStorage.store(photoFile) : null;
+    }
 
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    // The contact was not saved; photos are shared by content, so the cleaner checks references
+    private void discardPhoto(PhotoStorage.StoredPhoto photo) {
+        if (photo != null) {
+            photoCleaner.deleteAfterCommit(photo.path());
         }
-
-        Path filePath = uploadPath.resolve(fileName);
-        Files.write(filePath, file.getBytes());
-
-        return fileName + "|" + filePath.toString();
     }
 
-    private void deletePhotoFile(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        if (Files.exists(path)) {
-            Files.delete(path);
+    // The words of the term as a to_tsquery expression, e.g. "cloud eng" as "cloud:* & eng:*"
+    // (every word a required prefix). Only letters and digits reach to_tsquery, so no input is
+    // read as tsquery operators; null when the term has no words
+    private static String tsQuery(String term, String suffix, String operator) {
+        StringJoiner query = new StringJoiner(operator);
+        Matcher words = WORD.matcher(term);
+        while (words.find()) {
+            query.add(words.group() + suffix);
         }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    // Treat user input literally: Postgres uses backslash as the default LIKE escape character
+    private static String containsPattern(String term) {
+        String escaped = term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     private ContactDTO convertToDTO(Contact contact) {
@@ -0,0 +1,175 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.SuggestIndexStats;
+import com.contactapp.suggest.CompletionIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Type-ahead completions of contact names, emails and companies, served from an in-memory
+ * {@link CompletionIndex} so typing never queries the database.
+ * <p>
+ * The index is built at startup from a streaming scan of the contacts table and maintained by
+ * a single worker: ContactService writes apply the changed contact after commit, and once
+ * {@code contacts.suggest.rebuild-after} contacts have changed, or after a bulk import, the
+ * index is rebuilt from a fresh scan. Until the first build completes there are no
+ * suggestions. Stats are at /api/stats/suggest-index.
+ */
+@Component
+public class ContactSuggestIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactSuggestIndex.class);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    // Bulk imports commit batch by batch; one rebuild covers all batches committed meanwhile
+    private static final Duration REBUILD_DELAY = Duration.ofSeconds(1);
+    private static final String CONTACT_KEYS_SQL =
+            "SELECT id, first_name, last_name, email, company FROM contacts ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int rebuildAfter;
+    // Builds and updates run on this one thread, in submission order
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("contact-suggest").daemon().factory());
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile CompletionIndex index;
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong suggestions = new AtomicLong();
+    private final AtomicLong suggestNanos = new AtomicLong();
+    private volatile long lastBuildMillis;
+    private volatile Instant lastBuilt;
+    private volatile String lastFailure;
+
+    public ContactSuggestIndex(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${contacts.suggest.rebuild-after:10000}") int rebuildAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildAfter = rebuildAfter;
+    }
+
+    /** Builds the index in the background. */
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduleRebuild(0);
+    }
+
+    /** Up to {@code limit} completions of {@code prefix}; none before the first build completes. */
+    public List<CompletionIndex.Completion> suggest(String prefix, int limit) {
+        long started = System.nanoTime();
+        CompletionIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        List<CompletionIndex.Completion> completions = current.complete(prefix, limit);
+        suggestions.incrementAndGet();
+        suggestNanos.addAndGet(System.nanoTime() - started);
+        return completions;
+    }
+
+    /** Whether the index has been built since startup. */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /** Applies the contact's values once the current transaction commits. */
+    void updateAfterCommit(ContactDTO contact) {
+        AfterCommit.run(() -> worker.execute(() -> apply(current -> current.update(contact.getId(),
+                contact.getFirstName(), contact.getLastName(), contact.getEmail(), contact.getCompany()))));
+    }
+
+    /** Removes the contact's values once the current transaction commits. */
+    void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> worker.execute(() -> apply(current -> current.remove(id))));
+    }
+
+    /** Rebuilds the index from the database once the current transaction commits, e.g. after a bulk import. */
+    void rebuildAfterCommit() {
+        AfterCommit.run(() -> scheduleRebuild(REBUILD_DELAY.toMillis()));
+    }
+
+    public SuggestIndexStats stats() {
+        CompletionIndex current = index;
+        long count = suggestions.get();
+        return new SuggestIndexStats(current != null, current == null ? 0 : current.contacts(),
+                current == null ? 0 : current.completions(), current == null ? 0 : current.changedContacts(),
+                current == null ? 0 : current.estimatedBytes(), builds.get(), lastBuildMillis, lastBuilt,
+                updates.get(), count, count == 0 ? 0 : suggestNanos.get() / count, lastFailure);
+    }
+
+    @PreDestroy
+    void close() {
+        worker.shutdownNow();
+    }
+
+    // Changes before the first build are already in its scan
+    private void apply(Consumer<CompletionIndex> change) {
+        CompletionIndex current = index;
+        if (current == null) {
+            return;
+        }
+        change.accept(current);
+        updates.incrementAndGet();
+        if (current.changedContacts() >= rebuildAfter) {
+            scheduleRebuild(0);
+        }
+    }
+
+    private void scheduleRebuild(long delayMillis) {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            worker.schedule(this::rebuild, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Changes committed during the scan are queued behind it, and applying them again is harmless
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        long started = System.nanoTime();
+        try {
+            CompletionIndex.Builder builder = new CompletionIndex.Builder();
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(CONTACT_KEYS_SQL);
+                statement.setFetchSize(1000);
+                return statement;
+            }, (RowCallbackHandler) rs -> builder.add(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"),
+                    rs.getString("email"), rs.getString("company"))));
+            CompletionIndex built = builder.build();
+            boolean first = index == null;
+            index = built;
+            lastBuildMillis = (System.nanoTime() - started) / 1_000_000;
+            lastBuilt = Instant.now();
+            builds.incrementAndGet();
+            if (first) {
+                log.info("Suggest index ready: {} contacts, {} completions, ~{} KB, in {} ms", built.contacts(),
+                        built.completions(), built.estimatedBytes() >> 10, lastBuildMillis);
+            }
+        } catch (RuntimeException e) {
+            lastFailure = Instant.now() + ": " + e.getMessage();
+            log.warn("Suggest index build failed, retrying in {}: {}", RETRY_DELAY, e.getMessage());
+            scheduleRebuild(RETRY_DELAY.toMillis());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.BulkUpsertResult;
+import com.contactapp.dto.BulkUpsertResult.Outcome;
+import com.contactapp.dto.BulkUpsertResult.Row;
+import com.contactapp.dto.ContactDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bulk upsert keyed by email, for syncing contacts from an upstream system. Each batch is a
+ * single {@code INSERT ... ON CONFLICT (email) DO UPDATE} statement over unnested arrays, so a
+ * batch costs one round trip regardless of its size, instead of a lookup plus a save per contact.
+ */
+@Service
+public class ContactUpsertService {
+
+    // Ordered as the unnest() arguments in UPSERT_SQL
+    private static final List<Function<ContactDTO, String>> COLUMNS = List.of(
+            ContactDTO::getFirstName, ContactDTO::getLastName, ContactDTO::getEmail, ContactDTO::getPhone,
+            ContactDTO::getCompany, ContactDTO::getJobTitle, ContactDTO::getAddress, ContactDTO::getCity,
+            ContactDTO::getState, ContactDTO::getZipCode, ContactDTO::getCountry, ContactDTO::getNotes);
+
+    // The WHERE clause leaves rows whose content already matches untouched: no new row version,
+    // no trigger run, and no RETURNING row, which is how unchanged rows are told apart.
+    // xmax is 0 only on a freshly inserted row version.
+    private static final String UPSERT_SQL =
+            "INSERT INTO contacts AS c (first_name, last_name, email, phone, company, job_title, address, " +
+            "city, state, zip_code, country, notes, created_at, updated_at) " +
+            "SELECT t.*, now(), now() FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], " +
+            "?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) " +
+            "AS t(first_name, last_name, email, phone, company, job_title, address, city, state, zip_code, " +
+            "country, notes) " +
+            "ON CONFLICT (email) DO UPDATE SET first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name, " +
+            "phone = EXCLUDED.phone, company = EXCLUDED.company, job_title = EXCLUDED.job_title, " +
+            "address = EXCLUDED.address, city = EXCLUDED.city, state = EXCLUDED.state, " +
+            "zip_code = EXCLUDED.zip_code, country = EXCLUDED.country, notes = EXCLUDED.notes, updated_at = now() " +
+            "WHERE (c.first_name, c.last_name, c.phone, c.company, c.job_title, c.address, c.city, c.state, " +
+            "c.zip_code, c.country, c.notes) IS DISTINCT FROM (EXCLUDED.first_name, EXCLUDED.last_name, " +
+            "EXCLUDED.phone, EXCLUDED.company, EXCLUDED.job_title, EXCLUDED.address, EXCLUDED.city, " +
+            "EXCLUDED.state, EXCLUDED.zip_code, EXCLUDED.country, EXCLUDED.notes) " +
+            "RETURNING c.id, c.email, c.xmax = 0";
+
+    private static final String IDS_BY_EMAIL_SQL = "SELECT id, email FROM contacts WHERE email = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ContactRowValidator validator;
+    private final ContactCache contactCache;
+    private final ContactDataVersion dataVersion;
+    private final ContactSemanticIndex semanticIndex;
+    private final ContactSuggestIndex suggestIndex;
+    private final int batchSize;
+    private final int maxRows;
+
+    public ContactUpsertService(JdbcTemplate jdbcTemplate,
+                                ContactRowValidator validator,
+                                ContactCache contactCache,
+                                ContactDataVersion dataVersion,
+                                ContactSemanticIndex semanticIndex,
+                                ContactSuggestIndex suggestIndex,
+                                @Value("${contacts.import.batch-size:1000}") int batchSize,
+                                @Value("${contacts.bulk.max-rows:10000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.contactCache = contactCache;
+        this.dataVersion = dataVersion;
+        this.semanticIndex = semanticIndex;
+        this.suggestIndex = suggestIndex;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Creates or replaces each contact by email. Invalid rows and repeated emails are rejected
+     * without affecting the rest; all accepted rows are applied in one transaction.
+     */
+    @Transactional
+    public BulkUpsertResult upsert(List<ContactDTO> contacts) {
+        if (contacts.size() > maxRows) {
+            throw new IllegalArgumentException("At most " + maxRows + " contacts can be upserted per request");
+        }
+
+        Row[] rows = new Row[contacts.size()];
+        Map<String, Integer> indexByEmail = new HashMap<>();
+        List<ContactDTO> batch = new ArrayList<>(Math.min(batchSize, contacts.size()));
+        for (int i = 0; i < contacts.size(); i++) {
+            ContactDTO contact = contacts.get(i);
+            String problem = contact == null ? "Missing contact" : validator.validate(contact);
+            // ON CONFLICT cannot touch the same row twice in one statement
+            if (problem == null && indexByEmail.putIfAbsent(contact.getEmail(), i) != null) {
+                problem = "Duplicate email: " + contact.getEmail();
+            }
+            if (problem != null) {
+                rows[i] = new Row(i, contact == null ? null : contact.getEmail(), Outcome.REJECTED, null, problem);
+                continue;
+            }
+            batch.add(contact);
+            if (batch.size() == batchSize) {
+                upsertBatch(batch, indexByEmail, rows);
+                batch.clear();
+            }
+        }
+        upsertBatch(batch, indexByEmail, rows);
+        resolveUnchanged(contacts, rows);
+
+        int[] counts = new int[Outcome.values().length];
+        List<Long> updatedIds = new ArrayList<>();
+        for (Row row : rows) {
+            counts[row.outcome().ordinal()]++;
+            if (row.outcome() == Outcome.UPDATED) {
+                updatedIds.add(row.id());
+            }
+        }
+        contactCache.evictAfterCommit(updatedIds);
+        if (counts[Outcome.CREATED.ordinal()] + counts[Outcome.UPDATED.ordinal()] > 0) {
+            dataVersion.bumpAfterCommit();
+            semanticIndex.resyncAfterCommit();
+            suggestIndex.rebuildAfterCommit();
+        }
+        return new BulkUpsertResult(counts[Outcome.CREATED.ordinal()], counts[Outcome.UPDATED.ordinal()],
+                counts[Outcome.UNCHANGED.ordinal()], counts[Outcome.REJECTED.ordinal()], List.of(rows));
+    }
+
+    private void upsertBatch(List<ContactDTO> batch, Map<String, Integer> indexByEmail, Row[] rows) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+            for (int column = 0; column < COLUMNS.size(); column++) {
+                Function<ContactDTO, String> getter = COLUMNS.get(column);
+                ps.setArray(column + 1, textArray(connection, batch.stream().map(getter).toArray(String[]::new)));
+            }
+            return ps;
+        }, rs -> {
+            String email = rs.getString(2);
+            int index = indexByEmail.get(email);
+            rows[index] = new Row(index, email, rs.getBoolean(3) ? Outcome.CREATED : Outcome.UPDATED,
+                    rs.getLong(1), null);
+        });
+    }
+
+    // Rows the upsert skipped already exist with identical content; look up their ids in one query
+    private void resolveUnchanged(List<ContactDTO> contacts, Row[] rows) {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == null) {
+                emails.add(contacts.get(i).getEmail());
+            }
+        }
+        if (emails.isEmpty()) {
+            return;
+        }
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(IDS_BY_EMAIL_SQL);
+            ps.setArray(1, textArray(connection, emails.toArray(String[]::new)));
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString(2), rs.getLong(1));
+        });
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == null) {
+                String email = contacts.get(i).getEmail();
+                rows[i] = new Row(i, email, Outcome.UNCHANGED, ids.get(email), null);
+            }
+        }
+    }
+
+    private static Array textArray(Connection connection, String[] values) throws SQLException {
+        return connection.createArrayOf("text", values);
+    }
+}
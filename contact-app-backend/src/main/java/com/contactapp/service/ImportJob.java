@@ -0,0 +1,88 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ImportJobStatus;
+import com.contactapp.dto.ImportJobStatus.Rejection;
+import com.contactapp.dto.ImportJobStatus.State;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutable progress of one import, written by the import thread and read by status requests.
+ */
+class ImportJob {
+
+    private static final int MAX_REJECTIONS_REPORTED = 100;
+
+    private final String id;
+    private final ContactFileFormat format;
+    private final List<Rejection> rejections = new ArrayList<>();
+    private State state = State.QUEUED;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    ImportJob(String id, ContactFileFormat format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ContactFileFormat format() {
+        return format;
+    }
+
+    synchronized void start() {
+        state = State.RUNNING;
+        startedAt = Instant.now();
+    }
+
+    synchronized void rowRead() {
+        rowsRead++;
+    }
+
+    synchronized void imported(int rows) {
+        rowsImported += rows;
+    }
+
+    synchronized void reject(long row, String reason) {
+        rowsRejected++;
+        if (rejections.size() < MAX_REJECTIONS_REPORTED) {
+            rejections.add(new Rejection(row, reason));
+        }
+    }
+
+    synchronized void complete() {
+        state = State.COMPLETED;
+        finishedAt = Instant.now();
+    }
+
+    synchronized void fail(String message) {
+        state = State.FAILED;
+        error = message;
+        finishedAt = Instant.now();
+    }
+
+    synchronized boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    synchronized ImportJobStatus status() {
+        double rowsPerSecond = 0;
+        if (startedAt != null) {
+            Duration elapsed = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now());
+            double seconds = elapsed.toNanos() / 1_000_000_000.0;
+            rowsPerSecond = seconds > 0 ? rowsImported / seconds : 0;
+        }
+        return new ImportJobStatus(id, format.name(), state, rowsRead, rowsImported, rowsRejected,
+                rowsPerSecond, startedAt, finishedAt, error, List.copyOf(rejections));
+    }
+}
@@ -0,0 +1,448 @@
+package com.contactapp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Appends photos to a few large pack files instead of creating a file per photo, so millions
+ * of photos cost a handful of inodes and back up as large sequential files.
+ * <p>
+ * Layout under {@code <upload-dir>/packs}:
+ * <ul>
+ *   <li>{@code pack-NNNNNN.dat}: fixed-capacity files (sparse until filled), memory-mapped
+ *       read-only for reads; new photos are appended to the newest pack.</li>
+ *   <li>{@code index.log}: append-only lines {@code P <key> <pack> <offset> <length>} (put)
+ *       and {@code D <key>} (delete), replayed at startup into an in-memory offset index.
+ *       A photo's bytes are forced to disk before its put line is written, so a crash can
+ *       only lose unreferenced tail bytes.</li>
+ * </ul>
+ * The key is {@code <sha256>.<ext>}, and photoPath holds {@code pack:<key>}, so identical
+ * uploads are stored once. Deleting only tombstones an entry; a periodic compaction copies
+ * the live entries out of packs that are mostly garbage and retires them. Retired packs are
+ * deleted one compaction later, so in-flight reads of their old offsets still succeed.
+ */
+@Component
+@ConditionalOnProperty(name = "contacts.photos.storage", havingValue = "pack")
+public class PackFilePhotoStorage implements PhotoStorage, ApplicationRunner {
+
+    static final String PREFIX = "pack:";
+
+    private static final Logger log = LoggerFactory.getLogger(PackFilePhotoStorage.class);
+    private static final Pattern PACK_NAME = Pattern.compile("pack-(\\d{6})\\.dat");
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,8})?");
+
+    private record Entry(int pack, long offset, int length) {}
+
+    private static final class Pack {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer map;
+        // Guarded by the storage's lock
+        long end;
+        long garbage;
+
+        Pack(int id, Path path, FileChannel channel, MappedByteBuffer map) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.map = map;
+        }
+    }
+
+    private final Path root;
+    private final Path dir;
+    private final Path indexFile;
+    private final long capacity;
+    private final double compactionThreshold;
+    private final Duration compactionInterval;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Map<Integer, Pack> packs = new ConcurrentHashMap<>();
+    // When each key was last stored by this process; older entries count as stored at startup
+    private final Map<String, Instant> storedAt = new ConcurrentHashMap<>();
+    private final Instant startedAt = Instant.now();
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("photo-pack-compactor").daemon().factory());
+
+    // Guarded by this
+    private Pack current;
+    private FileChannel indexLog;
+    private long indexLines;
+    private final List<Pack> retired = new ArrayList<>();
+
+    public PackFilePhotoStorage(@Value("${file.upload-dir:uploads/photos}") String uploadDir,
+                                @Value("${contacts.photos.pack.capacity:256MB}") DataSize capacity,
+                                @Value("${contacts.photos.pack.compaction-interval:1h}") Duration compactionInterval,
+                                @Value("${contacts.photos.pack.compaction-threshold:0.5}") double compactionThreshold)
+            throws IOException {
+        if (capacity.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("contacts.photos.pack.capacity must be below 2GB (one mapping per pack)");
+        }
+        this.root = Paths.get(uploadDir);
+        this.dir = root.resolve("packs");
+        this.indexFile = dir.resolve("index.log");
+        this.capacity = capacity.toBytes();
+        this.compactionThreshold = compactionThreshold;
+        this.compactionInterval = compactionInterval;
+
+        Files.createDirectories(dir);
+        openPacks();
+        replayIndex();
+        indexLog = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        current = packs.values().stream().max((a, b) -> Integer.compare(a.id, b.id)).orElse(null);
+        log.info("Photo pack storage: {} photos in {} packs under {}", index.size(), packs.size(), dir);
+    }
+
+    /** Starts compacting packs periodically in the background. */
+    @Override
+    public void run(ApplicationArguments args) {
+        long interval = compactionInterval.toMillis();
+        compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public StoredPhoto store(InputStream content, String originalFileName) throws IOException {
+        PhotoFiles.Spooled spooled = PhotoFiles.spool(content, dir);
+        try {
+            String key = spooled.sha256() + PhotoFiles.extension(originalFileName);
+            // Under the lock, so a concurrent deleteIfStoredBefore either sees this upload or ran before it
+            synchronized (this) {
+                storedAt.put(key, Instant.now());
+                // Same content is already stored otherwise; share the existing entry
+                if (!index.containsKey(key)) {
+                    if (spooled.size() > capacity) {
+                        throw new IOException("Photo of " + spooled.size() + " bytes exceeds the pack capacity");
+                    }
+                    try (FileChannel source = FileChannel.open(spooled.file(), StandardOpenOption.READ)) {
+                        append(key, source, 0, (int) spooled.size());
+                    }
+                }
+            }
+            return new StoredPhoto(originalFileName, PREFIX + key);
+        } finally {
+            Files.deleteIfExists(spooled.file());
+        }
+    }
+
+    @Override
+    public Optional<PhotoLocation> locate(String photoPath) throws IOException {
+        if (!photoPath.startsWith(PREFIX)) {
+            return PhotoFiles.locateFile(photoPath);
+        }
+        String key = photoPath.substring(PREFIX.length());
+        Entry entry = index.get(key);
+        Pack pack = entry == null ? null : packs.get(entry.pack());
+        if (pack == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new PhotoLocation(pack.path, entry.offset(), entry.length(), key));
+    }
+
+    /** Reads straight from the pack's memory mapping, without a system call per read. */
+    @Override
+    public InputStream read(String photoPath) throws IOException {
+        if (!photoPath.startsWith(PREFIX)) {
+            return PhotoStorage.super.read(photoPath);
+        }
+        Entry entry = index.get(photoPath.substring(PREFIX.length()));
+        Pack pack = entry == null ? null : packs.get(entry.pack());
+        if (pack == null) {
+            throw new IOException("Photo not found: " + photoPath);
+        }
+        return new ByteBufferInputStream(pack.map.slice((int) entry.offset(), entry.length()));
+    }
+
+    @Override
+    public void delete(String photoPath) throws IOException {
+        if (!photoPath.startsWith(PREFIX)) {
+            Files.deleteIfExists(Paths.get(photoPath));
+            return;
+        }
+        String key = photoPath.substring(PREFIX.length());
+        synchronized (this) {
+            Entry entry = index.remove(key);
+            storedAt.remove(key);
+            if (entry != null) {
+                writeIndex("D " + key);
+                Pack pack = packs.get(entry.pack());
+                if (pack != null) {
+                    pack.garbage += entry.length();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean deleteIfStoredBefore(String photoPath, Instant storedBefore) throws IOException {
+        if (!photoPath.startsWith(PREFIX)) {
+            return PhotoFiles.deleteIfModifiedBefore(Paths.get(photoPath), storedBefore);
+        }
+        String key = photoPath.substring(PREFIX.length());
+        synchronized (this) {
+            if (!index.containsKey(key) || !storedAt.getOrDefault(key, startedAt).isBefore(storedBefore)) {
+                return false;
+            }
+            delete(photoPath);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<Instant> lastStored(String photoPath) throws IOException {
+        if (!photoPath.startsWith(PREFIX)) {
+            return PhotoFiles.lastModified(photoPath);
+        }
+        String key = photoPath.substring(PREFIX.length());
+        return index.containsKey(key) ? Optional.of(storedAt.getOrDefault(key, startedAt)) : Optional.empty();
+    }
+
+    /** Tombstones unreferenced pack entries; files left in the upload dir by earlier versions are deleted. */
+    @Override
+    public long sweep(Predicate<String> isReferenced, Instant cutoff) throws IOException {
+        long deleted = PhotoFiles.sweepFiles(root, isReferenced, cutoff) + PhotoFiles.deleteTempFiles(dir, cutoff);
+        for (String key : List.copyOf(index.keySet())) {
+            String photoPath = PREFIX + key;
+            if (!isReferenced.test(photoPath) && deleteIfStoredBefore(photoPath, cutoff)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean isNative(String photoPath) {
+        return photoPath.startsWith(PREFIX) && KEY.matcher(photoPath.substring(PREFIX.length())).matches();
+    }
+
+    /**
+     * Copies the live entries of every pack (other than the one being appended to) whose
+     * deleted share exceeds the threshold into the current pack, then retires it. Also
+     * deletes the packs retired by the previous run and rewrites the index log once it is
+     * mostly superseded lines.
+     */
+    synchronized void compact() throws IOException {
+        for (Pack pack : retired) {
+            pack.channel.close();
+            Files.deleteIfExists(pack.path);
+            log.info("Deleted retired photo pack {}", pack.path.getFileName());
+        }
+        retired.clear();
+
+        for (Pack pack : List.copyOf(packs.values())) {
+            if (pack == current || pack.end == 0 || pack.garbage <= pack.end * compactionThreshold) {
+                continue;
+            }
+            int moved = 0;
+            for (Map.Entry<String, Entry> e : List.copyOf(index.entrySet())) {
+                Entry entry = e.getValue();
+                if (entry.pack() == pack.id) {
+                    append(e.getKey(), pack.channel, entry.offset(), entry.length());
+                    moved++;
+                }
+            }
+            packs.remove(pack.id);
+            retired.add(pack);
+            log.info("Compacted photo pack {}: moved {} live photos, reclaiming {} bytes",
+                    pack.path.getFileName(), moved, pack.garbage);
+        }
+
+        if (indexLines > 2L * index.size() + 1000) {
+            rewriteIndex();
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        compactor.shutdownNow();
+        indexLog.close();
+        for (Pack pack : packs.values()) {
+            pack.channel.close();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Photo pack compaction failed", e);
+        }
+    }
+
+    // Caller holds the lock. Copies length bytes of source into the current pack and records them.
+    private void append(String key, FileChannel source, long sourceOffset, int length) throws IOException {
+        Pack pack = current;
+        if (pack == null || pack.end + length > capacity) {
+            pack = createPack(pack == null ? 1 : pack.id + 1);
+            current = pack;
+        }
+        long written = 0;
+        while (written < length) {
+            written += source.transferTo(sourceOffset + written, length - written,
+                    pack.channel.position(pack.end + written));
+        }
+        pack.channel.force(false);
+
+        Entry previous = index.get(key);
+        writeIndex("P " + key + " " + pack.id + " " + pack.end + " " + length);
+        index.put(key, new Entry(pack.id, pack.end, length));
+        pack.end += length;
+        if (previous != null && packs.get(previous.pack()) != null) {
+            packs.get(previous.pack()).garbage += previous.length();
+        }
+    }
+
+    private Pack createPack(int id) throws IOException {
+        Path path = dir.resolve(String.format("pack-%06d.dat", id));
+        Pack pack = openPack(id, path);
+        packs.put(id, pack);
+        log.info("Started photo pack {}", path.getFileName());
+        return pack;
+    }
+
+    private Pack openPack(int id, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Reserve the full capacity up front (sparse), so one mapping covers everything appended later
+        if (channel.size() < capacity) {
+            channel.write(ByteBuffer.wrap(new byte[1]), capacity - 1);
+        }
+        return new Pack(id, path, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity));
+    }
+
+    private void openPacks() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "pack-*.dat")) {
+            for (Path path : files) {
+                Matcher m = PACK_NAME.matcher(path.getFileName().toString());
+                if (m.matches()) {
+                    int id = Integer.parseInt(m.group(1));
+                    packs.put(id, openPack(id, path));
+                }
+            }
+        }
+    }
+
+    private void replayIndex() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                indexLines++;
+                String[] parts = line.split(" ");
+                // A torn final line from a crash is ignored; its photo was never acknowledged
+                if (parts.length == 5 && parts[0].equals("P")) {
+                    Pack pack = packs.get(Integer.parseInt(parts[2]));
+                    if (pack == null) {
+                        continue;
+                    }
+                    Entry entry = new Entry(pack.id, Long.parseLong(parts[3]), Integer.parseInt(parts[4]));
+                    pack.end = Math.max(pack.end, entry.offset() + entry.length());
+                    Entry previous = index.put(parts[1], entry);
+                    if (previous != null && packs.get(previous.pack()) != null) {
+                        packs.get(previous.pack()).garbage += previous.length();
+                    }
+                } else if (parts.length == 2 && parts[0].equals("D")) {
+                    Entry previous = index.remove(parts[1]);
+                    if (previous != null && packs.get(previous.pack()) != null) {
+                        packs.get(previous.pack()).garbage += previous.length();
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeIndex(String line) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            indexLog.write(bytes);
+        }
+        indexLog.force(false);
+        indexLines++;
+    }
+
+    // Caller holds the lock. Replaces the log with one put line per live entry.
+    private void rewriteIndex() throws IOException {
+        Path temp = dir.resolve("index.log.tmp");
+        StringBuilder snapshot = new StringBuilder();
+        index.forEach((key, entry) -> snapshot.append("P ").append(key).append(' ').append(entry.pack())
+                .append(' ').append(entry.offset()).append(' ').append(entry.length()).append('\n'));
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap(snapshot.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            out.force(true);
+        }
+        indexLog.close();
+        PhotoFiles.moveAtomically(temp, indexFile);
+        indexLog = FileChannel.open(indexFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        indexLines = index.size();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
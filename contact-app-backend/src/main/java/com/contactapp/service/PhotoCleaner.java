@@ -0,0 +1,216 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.PhotoCleanupStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes photo files outside request transactions, so a request holds its connection only
+ * for database work and a rolled-back change never loses a file it still references.
+ * <p>
+ * Writers call {@link #deleteAfterCommit}: the photo is queued once the transaction commits
+ * (nothing happens on rollback), and a background thread deletes queued photos in batches
+ * once they are {@code cleanup-delay} old. A queued photo is kept if a contact references it
+ * again, or if an upload with the same content stored it within the delay (that upload may
+ * not have committed its reference yet).
+ * <p>
+ * The queue is in memory. Deletions lost to a restart, photos orphaned by failed uploads and
+ * thumbnails of deleted photos are reconciled by a periodic sweep that compares the stored
+ * photos and thumbnails against {@code contacts.photo_path}.
+ */
+@Component
+public class PhotoCleaner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoCleaner.class);
+    private static final int BATCH_SIZE = 500;
+    private static final long DRAIN_INTERVAL_SECONDS = 5;
+
+    private record Pending(String photoPath, Instant due) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PhotoStorage photoStorage;
+    private final PhotoThumbnails photoThumbnails;
+    private final Duration delay;
+    private final Duration sweepInterval;
+    // Every entry waits the same delay, so the queue is in due order
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong kept = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("photo-cleaner").daemon().factory());
+
+    private volatile Instant lastSweepAt;
+    private volatile long lastSweepPhotos;
+    private volatile long lastSweepThumbnails;
+    private volatile long lastSweepMillis;
+
+    public PhotoCleaner(JdbcTemplate jdbcTemplate,
+                        PhotoStorage photoStorage,
+                        PhotoThumbnails photoThumbnails,
+                        @Value("${contacts.photos.cleanup-delay:1m}") Duration delay,
+                        @Value("${contacts.photos.orphan-sweep-interval:6h}") Duration sweepInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.photoStorage = photoStorage;
+        this.photoThumbnails = photoThumbnails;
+        this.delay = delay;
+        this.sweepInterval = sweepInterval;
+    }
+
+    /** Starts draining queued deletions and sweeping orphaned photos in the background. */
+    @Override
+    public void run(ApplicationArguments args) {
+        executor.scheduleWithFixedDelay(this::drainQuietly, DRAIN_INTERVAL_SECONDS, DRAIN_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+        // The first sweep also picks up deletions queued before a restart
+        executor.scheduleWithFixedDelay(this::sweepQuietly, delay.toMillis(), sweepInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues {@code photoPath} for deletion once the current transaction commits, or right away
+     * when there is none. The photo is only deleted if no contact references it by then.
+     */
+    void deleteAfterCommit(String photoPath) {
+        AfterCommit.run(() -> enqueue(photoPath));
+    }
+
+    public PhotoCleanupStats stats() {
+        return new PhotoCleanupStats(pendingCount.get(), deleted.get(), kept.get(), failed.get(),
+                lastSweepAt, lastSweepPhotos, lastSweepThumbnails, lastSweepMillis);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(String photoPath) {
+        pending.add(new Pending(photoPath, Instant.now().plus(delay)));
+        pendingCount.incrementAndGet();
+    }
+
+    /** Deletes every queued photo that is due, one batch (and one reference query) at a time. */
+    void drain() {
+        Instant now = Instant.now();
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        do {
+            batch.clear();
+            Pending next;
+            // Single consumer: the entry peeked is the one polled
+            while (batch.size() < BATCH_SIZE && (next = pending.peek()) != null && !next.due().isAfter(now)) {
+                batch.add(pending.poll());
+            }
+            pendingCount.addAndGet(-batch.size());
+            if (!batch.isEmpty()) {
+                deleteUnreferenced(batch, now.minus(delay));
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    /**
+     * Deletes the stored photos and thumbnails that no contact references and that were not
+     * stored within the cleanup delay.
+     */
+    void sweep() throws IOException {
+        long started = System.nanoTime();
+        // Taken before reading references: anything stored later is younger than the cutoff
+        Instant cutoff = Instant.now().minus(delay);
+        Set<String> referenced = new HashSet<>();
+        Set<String> versions = new HashSet<>();
+        jdbcTemplate.query("SELECT DISTINCT photo_path FROM contacts WHERE photo_path IS NOT NULL", rs -> {
+            String photoPath = rs.getString(1);
+            referenced.add(normalize(photoPath));
+            versions.add(ContactDTO.photoVersionOf(photoPath));
+        });
+        lastSweepPhotos = photoStorage.sweep(path -> referenced.contains(normalize(path)), cutoff);
+        lastSweepThumbnails = photoThumbnails.sweep(versions::contains, cutoff);
+        lastSweepMillis = (System.nanoTime() - started) / 1_000_000;
+        lastSweepAt = Instant.now();
+        log.info("Photo sweep: {} orphaned photos and {} thumbnails deleted in {} ms ({} photos referenced)",
+                lastSweepPhotos, lastSweepThumbnails, lastSweepMillis, referenced.size());
+    }
+
+    private void deleteUnreferenced(List<Pending> batch, Instant storedBefore) {
+        Set<String> photoPaths = new LinkedHashSet<>();
+        batch.forEach(p -> photoPaths.add(p.photoPath()));
+        Set<String> referenced = new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT DISTINCT photo_path FROM contacts WHERE photo_path = ANY(?)");
+            ps.setArray(1, con.createArrayOf("text", photoPaths.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1)));
+
+        for (String photoPath : photoPaths) {
+            try {
+                Optional<Instant> stored = photoStorage.lastStored(photoPath);
+                if (stored.isEmpty()) {
+                    continue;
+                }
+                // Rechecked as it is deleted: an upload of the same content may reuse it meanwhile
+                if (referenced.contains(photoPath) || !photoStorage.deleteIfStoredBefore(photoPath, storedBefore)) {
+                    kept.incrementAndGet();
+                    continue;
+                }
+                deleted.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("Could not delete photo {}", photoPath, e);
+            }
+        }
+    }
+
+    // The same file may be named by differently spelled paths (e.g. "./uploads/..." by older rows)
+    private static String normalize(String photoPath) {
+        try {
+            return Paths.get(photoPath).toAbsolutePath().normalize().toString();
+        } catch (InvalidPathException e) {
+            return photoPath;
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            // The batch is dropped; the next sweep deletes whatever is still unreferenced
+            log.error("Photo cleanup failed", e);
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (IOException | RuntimeException e) {
+            log.error("Photo sweep failed", e);
+        }
+    }
+}
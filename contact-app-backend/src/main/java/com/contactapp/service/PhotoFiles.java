@@ -0,0 +1,226 @@
+package com.contactapp.service;
+
+import com.contactapp.service.PhotoStorage.PhotoLocation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * File helpers shared by the {@link PhotoStorage} backends.
+ */
+final class PhotoFiles {
+
+    /** An upload spooled to a temp file, with the SHA-256 of its content in hex. */
+    record Spooled(Path file, String sha256, long size) {}
+
+    static final String TEMP_PREFIX = "upload-";
+    static final String TEMP_SUFFIX = ".tmp";
+    /** Top-level directories of the upload dir that hold thumbnails and pack files, not photos. */
+    static final Set<String> RESERVED_DIRS = Set.of("derived", "packs");
+
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+    // Upper bound for one transferFrom call; the loop continues until the stream is drained
+    private static final long TRANSFER_CHUNK = 1 << 20;
+    // Serialize reusing a stored file with deleting it. Striped by file name, which is the same
+    // however a content-addressed path is spelled
+    private static final Object[] FILE_LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < FILE_LOCKS.length; i++) {
+            FILE_LOCKS[i] = new Object();
+        }
+    }
+
+    private PhotoFiles() {
+    }
+
+    /**
+     * Copies {@code in} to a new temp file in {@code dir}, hashing it on the way. The caller
+     * moves or deletes the file. Not Files.createTempFile: its owner-only permissions would
+     * carry over to the stored photo.
+     */
+    static Spooled spool(InputStream in, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path temp = Files.createFile(dir.resolve(TEMP_PREFIX + UUID.randomUUID() + TEMP_SUFFIX));
+        try {
+            MessageDigest digest = sha256();
+            long position = 0;
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, digest));
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                }
+            }
+            return new Spooled(temp, HexFormat.of().formatHex(digest.digest()), position);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /** The lower-cased extension with its dot, e.g. ".jpg", or "" if missing or unusual. */
+    static String extension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            // Replacing is safe: content-addressed files of the same name have identical content
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** The lock to hold while reusing or deleting {@code file}. */
+    static Object lockFor(Path file) {
+        return FILE_LOCKS[Math.floorMod(file.getFileName().toString().hashCode(), FILE_LOCKS.length)];
+    }
+
+    /**
+     * Marks a stored file as just stored, so deleters skip it; false if it no longer exists.
+     * The caller holds the file's {@link #lockFor lock}.
+     */
+    static boolean touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes {@code file} if it was last modified before {@code cutoff}, checked under its
+     * lock so that an upload reusing it meanwhile keeps it. Returns whether it was deleted.
+     */
+    static boolean deleteIfModifiedBefore(Path file, Instant cutoff) throws IOException {
+        synchronized (lockFor(file)) {
+            try {
+                if (!Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    return false;
+                }
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            return Files.deleteIfExists(file);
+        }
+    }
+
+    /** Last-modified time of a photo stored as a whole file, or empty if it does not exist. */
+    static Optional<Instant> lastModified(String photoPath) throws IOException {
+        Path file = Paths.get(photoPath);
+        try {
+            return Optional.of(Files.getLastModifiedTime(file).toInstant());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes the files under {@code root} last modified before {@code cutoff} that are
+     * abandoned upload temp files or photos {@code isReferenced} rejects, skipping the
+     * {@link #RESERVED_DIRS}. Returns how many files were deleted.
+     */
+    static long sweepFiles(Path root, Predicate<String> isReferenced, Instant cutoff) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        long[] deleted = {0};
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                boolean reserved = root.equals(dir.getParent())
+                        && RESERVED_DIRS.contains(dir.getFileName().toString());
+                return reserved ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && attrs.lastModifiedTime().toInstant().isBefore(cutoff)
+                        && (isTempFile(file) || !isReferenced.test(file.toString()))
+                        && deleteIfModifiedBefore(file, cutoff)) {
+                    deleted[0]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // Deleted concurrently, or unreadable; either way nothing to sweep
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return deleted[0];
+    }
+
+    /** Deletes the upload temp files directly in {@code dir} last modified before {@code cutoff}. */
+    static long deleteTempFiles(Path dir, Instant cutoff) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        long deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, TEMP_PREFIX + "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /** Resolves a photo stored as a whole file, as all photos were before storage backends. */
+    static Optional<PhotoLocation> locateFile(String photoPath) throws IOException {
+        Path file = Paths.get(photoPath);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(new PhotoLocation(file, 0, Files.size(file), file.getFileName().toString()));
+    }
+
+    private static boolean isTempFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
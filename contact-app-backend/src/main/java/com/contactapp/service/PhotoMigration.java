@@ -0,0 +1,102 @@
+package com.contactapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Moves photos whose {@code photo_path} is a plain file not in the configured
+ * {@link PhotoStorage} backend's layout (flat {@code uploads/photos/UUID_name} files, and for
+ * the pack backend also sharded files) into that backend, rewriting {@code photo_path} for
+ * every contact that shares the photo and then removing the old copy. {@code pack:} locators
+ * cannot be read by the sharded backend, so moving from pack to sharded is not supported:
+ * such photos are counted as missing. Until a photo is migrated it is still served from its
+ * old path, so the migration can run in the background while the app is in use. Enabled with
+ * {@code contacts.photos.migrate-on-startup=true}; safe to re-run.
+ */
+@Component
+public class PhotoMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoMigration.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PhotoStorage photoStorage;
+    private final ContactCache contactCache;
+    private final ContactDataVersion dataVersion;
+    private final boolean enabled;
+
+    public PhotoMigration(JdbcTemplate jdbcTemplate,
+                          PhotoStorage photoStorage,
+                          ContactCache contactCache,
+                          ContactDataVersion dataVersion,
+                          @Value("${contacts.photos.migrate-on-startup:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.photoStorage = photoStorage;
+        this.contactCache = contactCache;
+        this.dataVersion = dataVersion;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            Thread.ofVirtual().name("photo-migration").start(this::migrate);
+        }
+    }
+
+    /** Migrates every photo not yet in the current backend's layout; returns how many moved. */
+    public long migrate() {
+        log.info("Photo migration started");
+        long migrated = 0;
+        long missing = 0;
+        long failed = 0;
+        String after = "";
+        List<String> paths;
+        // Keyset scan over distinct paths, so each shared photo is handled once
+        do {
+            paths = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT photo_path FROM contacts WHERE photo_path > ? ORDER BY photo_path LIMIT ?",
+                    String.class, after, BATCH_SIZE);
+            for (String path : paths) {
+                if (photoStorage.isNative(path)) {
+                    continue;
+                }
+                try {
+                    if (photoStorage.locate(path).isEmpty()) {
+                        missing++;
+                        continue;
+                    }
+                    PhotoStorage.StoredPhoto stored;
+                    try (InputStream in = photoStorage.read(path)) {
+                        stored = photoStorage.store(in, Paths.get(path).getFileName().toString());
+                    }
+                    jdbcTemplate.update("UPDATE contacts SET photo_path = ? WHERE photo_path = ?", stored.path(), path);
+                    photoStorage.delete(path);
+                    migrated++;
+                } catch (IOException | RuntimeException e) {
+                    failed++;
+                    log.warn("Could not migrate photo {}", path, e);
+                }
+            }
+            if (!paths.isEmpty()) {
+                after = paths.get(paths.size() - 1);
+                // Cached contacts still name the old paths
+                contactCache.evictAll();
+                dataVersion.bumpAfterCommit();
+                log.info("Photo migration: {} migrated, {} missing, {} failed so far", migrated, missing, failed);
+            }
+        } while (paths.size() == BATCH_SIZE);
+        log.info("Photo migration finished: {} migrated, {} missing, {} failed", migrated, missing, failed);
+        return migrated;
+    }
+}
@@ -0,0 +1,79 @@
+package com.contactapp.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Where contact photo bytes live. A stored photo is identified by the locator string kept in
+ * {@code contacts.photo_path}; photos are content-addressed, so identical uploads share one
+ * stored copy and the caller decides when the last reference is gone.
+ * <p>
+ * Every backend also resolves plain file paths, which is what {@code photo_path} held before
+ * backends existed, so older rows keep working until {@link PhotoMigration} rewrites them.
+ * Select the backend with {@code contacts.photos.storage} ({@code sharded} or {@code pack}).
+ */
+public interface PhotoStorage {
+
+    /** A stored photo: the client's original file name and the locator to save as photoPath. */
+    record StoredPhoto(String originalFileName, String path) {}
+
+    /**
+     * A byte range of a file holding a stored photo, suitable for zero-copy transfer.
+     * {@code fileName} carries the photo's extension, for choosing a content type.
+     */
+    record PhotoLocation(Path file, long offset, long length, String fileName) {}
+
+    default StoredPhoto store(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getOriginalFilename());
+        }
+    }
+
+    /** Streams {@code content} into storage; the extension of {@code originalFileName} is kept. */
+    StoredPhoto store(InputStream content, String originalFileName) throws IOException;
+
+    Optional<PhotoLocation> locate(String photoPath) throws IOException;
+
+    /**
+     * Opens the photo's bytes for reading; fails if the photo does not exist. The default
+     * reads the whole located file, so backends that share files between photos override it.
+     */
+    default InputStream read(String photoPath) throws IOException {
+        PhotoLocation location = locate(photoPath)
+                .orElseThrow(() -> new IOException("Photo not found: " + photoPath));
+        return Files.newInputStream(location.file());
+    }
+
+    /** Removes the stored photo; the caller must ensure no contact still references it. */
+    void delete(String photoPath) throws IOException;
+
+    /**
+     * Removes the stored photo unless it was stored at or after {@code storedBefore}, checked
+     * atomically with uploads that reuse it, so such an upload either keeps it or stores it
+     * again. Returns whether it was removed; the caller must ensure no contact references it.
+     */
+    boolean deleteIfStoredBefore(String photoPath, Instant storedBefore) throws IOException;
+
+    /**
+     * When the photo was last written, counting uploads that matched its content and reused
+     * it; empty if it is not stored. Deleters skip recently stored photos, since the upload
+     * that stored them may not have committed its reference yet.
+     */
+    Optional<Instant> lastStored(String photoPath) throws IOException;
+
+    /**
+     * Deletes every stored photo last written before {@code cutoff} that {@code isReferenced}
+     * rejects, plus abandoned upload temp files; returns how many were deleted.
+     */
+    long sweep(Predicate<String> isReferenced, Instant cutoff) throws IOException;
+
+    /** Whether {@code photoPath} is already in this backend's own layout (no migration needed). */
+    boolean isNative(String photoPath);
+}
@@ -0,0 +1,257 @@
+package com.contactapp.service;
+
+import com.contactapp.cache.LruCache;
+import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.ThumbnailStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Resized JPEG variants of contact photos, generated in the background and stored under
+ * {@code <upload-dir>/derived/<size>/<ab>/<photo version>.jpg}, sharded by the version's first
+ * two characters. Variants are keyed by the photo's content version, so they are shared
+ * between contacts and never go stale.
+ * <p>
+ * Each photo is handled on its own virtual thread; a semaphore bounds how many images are
+ * decoded at once (resizing is CPU and memory heavy), and at most {@code max-pending} photos
+ * wait, beyond which new work is dropped and regenerated on a later request. Images over
+ * {@code thumbnail-max-pixels} are not decoded at all, and large ones are decoded subsampled
+ * to about twice the largest variant, so a small file of huge dimensions cannot exhaust the heap.
+ */
+@Service
+public class PhotoThumbnails {
+
+    /** A generated variant: the file and the size of its bounding box in pixels. */
+    public record Variant(Path path, int size) {}
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoThumbnails.class);
+    // A photo that could not be resized is not retried on every request for this long
+    private static final Duration RETRY_FAILED_AFTER = Duration.ofHours(1);
+    private static final int MAX_FAILURES_REMEMBERED = 10_000;
+
+    private final PhotoStorage photoStorage;
+    private final Path derivedDir;
+    private final List<Integer> sizes;
+    private final int maxPending;
+    private final long maxPixels;
+    private final Semaphore permits;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("photo-thumbnail-", 0).factory());
+    // Photo versions queued or in progress, so a burst of requests schedules one job per photo
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // Photo versions whose generation failed recently, with the reason
+    private final LruCache<String, String> failedVersions =
+            new LruCache<>("thumbnail-failures", MAX_FAILURES_REMEMBERED, RETRY_FAILED_AFTER);
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile String lastFailure;
+
+    public PhotoThumbnails(PhotoStorage photoStorage,
+                           @Value("${file.upload-dir:uploads/photos}") String uploadDir,
+                           @Value("${contacts.photos.thumbnail-sizes:48,128,512}") List<Integer> sizes,
+                           @Value("${contacts.photos.thumbnail-concurrency:2}") int concurrency,
+                           @Value("${contacts.photos.thumbnail-max-pending:1000}") int maxPending,
+                           @Value("${contacts.photos.thumbnail-max-pixels:50000000}") long maxPixels) {
+        this.photoStorage = photoStorage;
+        this.derivedDir = Paths.get(uploadDir, "derived");
+        this.sizes = sizes.stream().sorted().distinct().toList();
+        this.permits = new Semaphore(concurrency);
+        this.maxPending = maxPending;
+        this.maxPixels = maxPixels;
+    }
+
+    /** Queues generation of every variant of the stored photo; returns immediately. */
+    public void generate(String photoPath, String version) {
+        if (!inFlight.add(version)) {
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            inFlight.remove(version);
+            dropped.incrementAndGet();
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+                try {
+                    generateNow(photoPath, version);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.remove(version);
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Returns the smallest generated variant at least {@code requestedSize} pixels, or
+     * {@code null} if the original should be served: the request is larger than every variant,
+     * or the variant has not been generated yet (in which case generation is queued unless it
+     * failed within the last hour).
+     */
+    public Variant find(String photoPath, String version, int requestedSize) {
+        for (int size : sizes) {
+            if (size >= requestedSize) {
+                Path path = variantPath(size, version);
+                if (Files.isRegularFile(path)) {
+                    return new Variant(path, size);
+                }
+                if (failedVersions.getIfPresent(version) == null) {
+                    generate(photoPath, version);
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    public ThumbnailStats stats() {
+        return new ThumbnailStats(sizes, pending.get(), maxPending, generated.get(), failed.get(), dropped.get(),
+                lastFailure);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Deletes the variants (and abandoned temp files) last written before {@code cutoff} whose
+     * photo version {@code isReferenced} rejects; returns how many files were deleted.
+     */
+    public long sweep(Predicate<String> isReferenced, Instant cutoff) throws IOException {
+        return PhotoFiles.sweepFiles(derivedDir,
+                path -> isReferenced.test(ContactDTO.photoVersionOf(path)), cutoff);
+    }
+
+    private void generateNow(String photoPath, String version) {
+        try {
+            BufferedImage source;
+            try (InputStream in = photoStorage.read(photoPath)) {
+                source = decode(in);
+            }
+            for (int size : sizes) {
+                Path target = variantPath(size, version);
+                if (!Files.exists(target)) {
+                    write(resize(source, size), target);
+                }
+            }
+            generated.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            lastFailure = photoPath + ": " + e.getMessage();
+            failedVersions.put(version, String.valueOf(e.getMessage()));
+            log.warn("Could not generate thumbnails for {}: {}", photoPath, e.getMessage());
+        }
+    }
+
+    // Reads the dimensions from the header before decoding anything, then decodes every n-th
+    // pixel in each direction, keeping at least twice the largest variant's size
+    private BufferedImage decode(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("image is " + width + "x" + height + " pixels, over the limit of "
+                            + maxPixels);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * sizes.getLast()));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Path variantPath(int size, String version) {
+        String shard = version.substring(0, Math.min(2, version.length()));
+        return derivedDir.resolve(Integer.toString(size)).resolve(shard).resolve(version + ".jpg");
+    }
+
+    // Fits the image in a size x size box, never enlarging it. Halving first keeps the final
+    // bicubic pass from skipping pixels on large reductions.
+    private static BufferedImage resize(BufferedImage source, int size) {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    // JPEG has no alpha channel, so transparent areas are flattened onto white
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling("tmp-" + UUID.randomUUID() + ".jpg");
+        try {
+            if (!ImageIO.write(image, "jpg", temp.toFile())) {
+                throw new IOException("no JPEG writer available");
+            }
+            PhotoFiles.moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.contactapp.service;
+
+import java.util.Locale;
+
+/**
+ * Strategy used by {@link ContactService#searchContacts} to match a search term.
+ */
+public enum SearchMode {
+
+    /** Original JPQL LIKE scan across name, email, phone and company. */
+    LIKE,
+
+    /**
+     * Substring match on the search_text column, kept current by a trigger and backed by a
+     * pg_trgm GIN index; results are ranked by similarity.
+     */
+    TRIGRAM,
+
+    /**
+     * Word match on the weighted search_document tsvector (name, company, job title, city and
+     * notes), backed by a GIN index: every word of the term must start a word of the contact,
+     * and results are ranked by ts_rank, name matches first.
+     */
+    FULLTEXT;
+
+    public static SearchMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return TRIGRAM;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported search mode: " + value);
+        }
+    }
+}
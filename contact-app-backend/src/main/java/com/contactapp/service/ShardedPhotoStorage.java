@@ -0,0 +1,92 @@
+package com.contactapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Stores each photo as its own file at {@code <upload-dir>/ab/cd/<sha256>.<ext>}, where
+ * {@code ab} and {@code cd} are the first two bytes of the hash. The two shard levels spread
+ * photos over 65,536 directories, keeping every directory small even with millions of photos.
+ * An upload is streamed to a temp file while hashed, then atomically renamed into place, so a
+ * reader never sees a partially written photo.
+ */
+@Component
+@ConditionalOnProperty(name = "contacts.photos.storage", havingValue = "sharded", matchIfMissing = true)
+public class ShardedPhotoStorage implements PhotoStorage {
+
+    private static final Pattern SHARDED_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,8})?");
+
+    private final Path root;
+
+    public ShardedPhotoStorage(@Value("${file.upload-dir:uploads/photos}") String uploadDir) {
+        this.root = Paths.get(uploadDir);
+    }
+
+    @Override
+    public StoredPhoto store(InputStream content, String originalFileName) throws IOException {
+        PhotoFiles.Spooled spooled = PhotoFiles.spool(content, root);
+        try {
+            Path stored = shardOf(spooled.sha256()).resolve(spooled.sha256() + PhotoFiles.extension(originalFileName));
+            synchronized (PhotoFiles.lockFor(stored)) {
+                // Same content already stored: share the existing file, marking it as just stored
+                // so a pending cleanup does not remove it before this upload commits. If it was
+                // deleted meanwhile, store this copy instead
+                if (!PhotoFiles.touch(stored)) {
+                    Files.createDirectories(stored.getParent());
+                    PhotoFiles.moveAtomically(spooled.file(), stored);
+                }
+            }
+            return new StoredPhoto(originalFileName, stored.toString());
+        } finally {
+            Files.deleteIfExists(spooled.file());
+        }
+    }
+
+    @Override
+    public Optional<PhotoLocation> locate(String photoPath) throws IOException {
+        return PhotoFiles.locateFile(photoPath);
+    }
+
+    @Override
+    public void delete(String photoPath) throws IOException {
+        Files.deleteIfExists(Paths.get(photoPath));
+    }
+
+    @Override
+    public boolean deleteIfStoredBefore(String photoPath, Instant storedBefore) throws IOException {
+        return PhotoFiles.deleteIfModifiedBefore(Paths.get(photoPath), storedBefore);
+    }
+
+    @Override
+    public Optional<Instant> lastStored(String photoPath) throws IOException {
+        return PhotoFiles.lastModified(photoPath);
+    }
+
+    @Override
+    public long sweep(Predicate<String> isReferenced, Instant cutoff) throws IOException {
+        return PhotoFiles.sweepFiles(root, isReferenced, cutoff);
+    }
+
+    @Override
+    public boolean isNative(String photoPath) {
+        Path path = Paths.get(photoPath);
+        String name = path.getFileName().toString();
+        return SHARDED_NAME.matcher(name).matches() && path.getParent() != null
+                && path.getParent().equals(shardOf(name));
+    }
+
+    private Path shardOf(String sha256) {
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4));
+    }
+}
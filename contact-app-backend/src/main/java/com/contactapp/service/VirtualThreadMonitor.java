@@ -0,0 +1,142 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.VirtualThreadStats;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, e.g. while blocking inside
+ * native code or (before Java 24) a synchronized block. A pinned thread holds one of the few
+ * carriers, so a frequently pinned code path quietly caps request concurrency.
+ * <p>
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process, which works on every
+ * Java version since 21 (unlike {@code -Djdk.tracePinnedThreads}, removed in 24). Each new
+ * pinning site is logged once with its stack; counts per site are at /api/stats/virtual-threads.
+ */
+@Component
+public class VirtualThreadMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 100;
+    private static final int TOP_SITES = 10;
+    private static final int LOGGED_FRAMES = 12;
+
+    private final boolean virtualThreadsEnabled;
+    private final Duration threshold;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private final RecordingStream recording;
+
+    public VirtualThreadMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                                @Value("${contacts.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.threshold = threshold;
+        if (threshold.isNegative() || threshold.isZero()) {
+            this.recording = null;
+            return;
+        }
+        RecordingStream stream = null;
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+        } catch (RuntimeException e) {
+            // JFR can be unavailable (e.g. disabled in a minimal runtime image); the app runs without it
+            log.warn("Virtual thread pinning diagnostics unavailable: {}", e.getMessage());
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+        this.recording = stream;
+    }
+
+    public VirtualThreadStats stats() {
+        Map<String, Long> topSites = sites.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(TOP_SITES)
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum(), (a, b) -> a, LinkedHashMap::new));
+        return new VirtualThreadStats(virtualThreadsEnabled, recording != null, threshold.toMillis(),
+                pinnedEvents.get(), pinnedNanos.get() / 1_000_000, topSites);
+    }
+
+    @PreDestroy
+    void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = site(frames);
+        LongAdder count = sites.get(site);
+        if (count == null) {
+            if (sites.size() >= MAX_SITES) {
+                return;
+            }
+            LongAdder created = new LongAdder();
+            count = sites.putIfAbsent(site, created);
+            if (count == null) {
+                count = created;
+                log.warn("Virtual thread pinned for {} ms at {}:{}", event.getDuration().toMillis(), site,
+                        format(event.getStackTrace()));
+            }
+        }
+        count.increment();
+    }
+
+    // The innermost application (non-JDK) frame, which is usually the code to change
+    private static String site(List<RecordedFrame> frames) {
+        RecordedFrame chosen = null;
+        for (RecordedFrame frame : frames) {
+            if (frame.isJavaFrame()) {
+                String type = frame.getMethod().getType().getName();
+                if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                    chosen = frame;
+                    break;
+                }
+                if (chosen == null) {
+                    chosen = frame;
+                }
+            }
+        }
+        if (chosen == null) {
+            return "unknown";
+        }
+        return chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName()
+                + ":" + chosen.getLineNumber();
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        stackTrace.getFrames().stream().limit(LOGGED_FRAMES).forEach(frame -> text.append("\n\tat ")
+                .append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber()));
+        return text.toString();
+    }
+}
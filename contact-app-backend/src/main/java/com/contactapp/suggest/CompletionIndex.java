@@ -0,0 +1,446 @@
+package com.contactapp.suggest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Type-ahead completions of contact names, emails and companies: {@link #complete} returns the
+ * distinct values with a word starting with the typed prefix, case-insensitively, e.g. "doe"
+ * completes to "John Doe" and "tech" to "Tech Corp".
+ * <p>
+ * Built once from every contact as compact sorted arrays: the texts as one UTF-8 byte array,
+ * and an entry per word start (or, for emails, per text) sorted by the text from that word on,
+ * so a prefix is found by binary search. Later changes go to a small overlay (count changes of
+ * existing texts, new texts in a sorted map, each changed contact's current values) until the
+ * next build. Applying a contact's values is idempotent, so a change that a build already saw
+ * can be applied again.
+ * <p>
+ * Not thread-safe for writers: {@link #update} and {@link #remove} must be called by one
+ * thread at a time. Lookups may run concurrently with them.
+ */
+public final class CompletionIndex {
+
+    /** A completion and how many contacts have it; {@code contactId} is set when exactly one does. */
+    public record Completion(String text, String field, int contacts, Long contactId) {}
+
+    private static final byte NAME = 0;
+    private static final byte EMAIL = 1;
+    private static final byte COMPANY = 2;
+    private static final String[] FIELDS = {"name", "email", "company"};
+    // Candidates looked at per completion returned, so that whole-text and popular matches can rank first
+    private static final int CANDIDATES_PER_RESULT = 4;
+    private static final Values DELETED = new Values(null, null, null);
+
+    // A contact's completion texts, by field; null where it has none
+    private record Values(String name, String email, String company) {
+        static Values of(String firstName, String lastName, String email, String company) {
+            String name = ((firstName == null ? "" : firstName.strip()) + " "
+                    + (lastName == null ? "" : lastName.strip())).strip();
+            return new Values(emptyToNull(name), emptyToNull(email), emptyToNull(company));
+        }
+
+        String get(byte field) {
+            return switch (field) {
+                case NAME -> name;
+                case EMAIL -> email;
+                default -> company;
+            };
+        }
+
+        private static String emptyToNull(String value) {
+            return value == null || value.isBlank() ? null : value.strip();
+        }
+    }
+
+    private record Candidate(String text, byte field, int contacts, long contactId, boolean wholeText) {}
+
+    // A text first seen after the build, with its contact count; written only by the writer thread
+    private static final class Added {
+        final byte field;
+        volatile String text;
+        volatile int contacts;
+        volatile long contactId;
+
+        Added(byte field, String text) {
+            this.field = field;
+            this.text = text;
+        }
+    }
+
+    private record AddedEntry(Added added, boolean wholeText) {}
+
+    // The build: texts, entries and each contact's texts, as parallel arrays
+    private final byte[] textBytes;
+    private final int[] textStart;
+    private final byte[] textField;
+    private final int[] textContacts;
+    private final long[] textContactId;
+    private final int[] entryText;
+    private final short[] entryOffset;
+    private final long[] contactIds;
+    private final int[][] contactText;
+
+    // Changes since the build
+    private final Map<Integer, Integer> contactsDelta = new ConcurrentHashMap<>();
+    // Built texts whose case was changed since, e.g. "tech corp" edited to "Tech Corp"
+    private final Map<Integer, String> recased = new ConcurrentHashMap<>();
+    private final Map<String, Added> added = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, AddedEntry> addedEntries = new ConcurrentSkipListMap<>();
+    private final Map<Long, Values> changed = new ConcurrentHashMap<>();
+
+    private CompletionIndex(Builder builder) {
+        int texts = builder.texts.size();
+        this.textField = Arrays.copyOf(builder.textField, texts);
+        this.textContacts = Arrays.copyOf(builder.textContacts, texts);
+        this.textContactId = Arrays.copyOf(builder.textContactId, texts);
+        this.textStart = new int[texts + 1];
+        byte[][] encoded = new byte[texts][];
+        for (int t = 0; t < texts; t++) {
+            encoded[t] = builder.texts.get(t).getBytes(StandardCharsets.UTF_8);
+            textStart[t + 1] = textStart[t] + encoded[t].length;
+        }
+        this.textBytes = new byte[textStart[texts]];
+        for (int t = 0; t < texts; t++) {
+            System.arraycopy(encoded[t], 0, textBytes, textStart[t], encoded[t].length);
+        }
+
+        // Entries are sorted by the case-folded text from their word on, the order lookups search in
+        List<String> folded = builder.texts.stream().map(CompletionIndex::fold).toList();
+        List<long[]> entries = new ArrayList<>();
+        for (int t = 0; t < texts; t++) {
+            for (int offset : wordStarts(textField[t], builder.texts.get(t))) {
+                entries.add(new long[]{t, offset});
+            }
+        }
+        entries.sort((a, b) -> {
+            int order = compareFrom(folded.get((int) a[0]), (int) a[1], folded.get((int) b[0]), (int) b[1]);
+            return order != 0 ? order : Long.compare(a[0], b[0]);
+        });
+        this.entryText = new int[entries.size()];
+        this.entryOffset = new short[entries.size()];
+        for (int e = 0; e < entries.size(); e++) {
+            entryText[e] = (int) entries.get(e)[0];
+            entryOffset[e] = (short) entries.get(e)[1];
+        }
+
+        this.contactIds = Arrays.copyOf(builder.contactIds, builder.contacts);
+        this.contactText = new int[3][];
+        for (int field = 0; field < 3; field++) {
+            contactText[field] = Arrays.copyOf(builder.contactText[field], builder.contacts);
+        }
+    }
+
+    /** Collects every contact; contacts must be added in ascending id order. */
+    public static final class Builder {
+
+        private final List<String> texts = new ArrayList<>();
+        private final Map<String, Integer> textIndex = new HashMap<>();
+        private byte[] textField = new byte[1024];
+        private int[] textContacts = new int[1024];
+        private long[] textContactId = new long[1024];
+        private long[] contactIds = new long[1024];
+        private final int[][] contactText = {new int[1024], new int[1024], new int[1024]};
+        private int contacts;
+
+        public Builder add(long contactId, String firstName, String lastName, String email, String company) {
+            if (contacts > 0 && contactId <= contactIds[contacts - 1]) {
+                throw new IllegalArgumentException("Contacts must be added in ascending id order");
+            }
+            if (contacts == contactIds.length) {
+                contactIds = Arrays.copyOf(contactIds, contacts * 2);
+                for (int field = 0; field < 3; field++) {
+                    contactText[field] = Arrays.copyOf(contactText[field], contacts * 2);
+                }
+            }
+            Values values = Values.of(firstName, lastName, email, company);
+            contactIds[contacts] = contactId;
+            for (byte field = 0; field < 3; field++) {
+                String text = values.get(field);
+                contactText[field][contacts] = text == null ? -1 : text(field, text, contactId);
+            }
+            contacts++;
+            return this;
+        }
+
+        public CompletionIndex build() {
+            return new CompletionIndex(this);
+        }
+
+        private int text(byte field, String text, long contactId) {
+            // Emails are unique, so only names and companies are looked up for repeats
+            String key = field == EMAIL ? null : field + fold(text);
+            Integer existing = key == null ? null : textIndex.get(key);
+            if (existing != null) {
+                textContacts[existing]++;
+                textContactId[existing] = 0;
+                return existing;
+            }
+            int index = texts.size();
+            if (index == textField.length) {
+                textField = Arrays.copyOf(textField, index * 2);
+                textContacts = Arrays.copyOf(textContacts, index * 2);
+                textContactId = Arrays.copyOf(textContactId, index * 2);
+            }
+            texts.add(text);
+            textField[index] = field;
+            textContacts[index] = 1;
+            textContactId[index] = contactId;
+            if (key != null) {
+                textIndex.put(key, index);
+            }
+            return index;
+        }
+    }
+
+    /** Applies a contact's current values, whether it is new or was changed. */
+    public void update(long contactId, String firstName, String lastName, String email, String company) {
+        apply(contactId, Values.of(firstName, lastName, email, company));
+    }
+
+    public void remove(long contactId) {
+        apply(contactId, DELETED);
+    }
+
+    /**
+     * Up to {@code limit} completions of {@code prefix}: texts starting with it first, then those
+     * with a later word starting with it; among them, those shared by more contacts first.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String folded = fold(prefix.strip());
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        int wanted = limit * CANDIDATES_PER_RESULT;
+        List<Candidate> candidates = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int e = lowerBound(folded); e < entryText.length && candidates.size() < wanted; e++) {
+            int t = entryText[e];
+            String text = text(t);
+            if (compare(text, entryOffset[e], folded) != 0) {
+                break;
+            }
+            int delta = contactsDelta.getOrDefault(t, 0);
+            int contacts = textContacts[t] + delta;
+            if (contacts > 0 && seen.add(t)) {
+                candidates.add(new Candidate(recased.getOrDefault(t, text), textField[t], contacts,
+                        contacts == 1 && delta == 0 ? textContactId[t] : 0, entryOffset[e] == 0));
+            }
+        }
+        Set<Added> seenAdded = new HashSet<>();
+        for (Map.Entry<String, AddedEntry> entry : addedEntries.tailMap(folded).entrySet()) {
+            if (!entry.getKey().startsWith(folded) || seenAdded.size() >= wanted) {
+                break;
+            }
+            Added text = entry.getValue().added();
+            int contacts = text.contacts;
+            if (contacts > 0 && seenAdded.add(text)) {
+                candidates.add(new Candidate(text.text, text.field, contacts, contacts == 1 ? text.contactId : 0,
+                        entry.getValue().wholeText()));
+            }
+        }
+        return candidates.stream()
+                .sorted(Comparator.comparing((Candidate candidate) -> !candidate.wholeText())
+                        .thenComparing(Candidate::contacts, Comparator.reverseOrder())
+                        .thenComparing(Candidate::text, String.CASE_INSENSITIVE_ORDER))
+                .limit(limit)
+                .map(candidate -> new Completion(candidate.text(), FIELDS[candidate.field()], candidate.contacts(),
+                        candidate.contactId() == 0 ? null : candidate.contactId()))
+                .toList();
+    }
+
+    /** Contacts in the build. */
+    public int contacts() {
+        return contactIds.length;
+    }
+
+    /** Distinct texts, in the build and added since. */
+    public int completions() {
+        return textField.length + added.size();
+    }
+
+    /** Contacts changed since the build. */
+    public int changedContacts() {
+        return changed.size();
+    }
+
+    /** Approximate heap use: the arrays of the build and an estimate for the overlay. */
+    public long estimatedBytes() {
+        long build = textBytes.length + 4L * textStart.length + textField.length + 4L * textContacts.length
+                + 8L * textContactId.length + 4L * entryText.length + 2L * entryOffset.length
+                + 8L * contactIds.length + 3 * 4L * contactIds.length;
+        return build + 48L * contactsDelta.size() + 80L * recased.size() + 200L * added.size()
+                + 160L * changed.size();
+    }
+
+    private void apply(long contactId, Values values) {
+        Values current = changed.get(contactId);
+        if (current == null) {
+            current = built(contactId);
+        }
+        for (byte field = 0; field < 3; field++) {
+            String before = current.get(field);
+            String after = values.get(field);
+            if (Objects.equals(before, after)) {
+                continue;
+            }
+            if (before != null && after != null && fold(before).equals(fold(after))) {
+                // The same completion; the latest spelling is shown
+                recase(field, after);
+                continue;
+            }
+            if (before != null) {
+                adjust(field, before, -1, contactId);
+            }
+            if (after != null) {
+                adjust(field, after, 1, contactId);
+            }
+        }
+        changed.put(contactId, values);
+    }
+
+    // The contact's values as of the build, or DELETED if it was not there
+    private Values built(long contactId) {
+        int c = Arrays.binarySearch(contactIds, contactId);
+        if (c < 0) {
+            return DELETED;
+        }
+        String[] values = new String[3];
+        for (int field = 0; field < 3; field++) {
+            int t = contactText[field][c];
+            values[field] = t < 0 ? null : text(t);
+        }
+        return new Values(values[NAME], values[EMAIL], values[COMPANY]);
+    }
+
+    private void adjust(byte field, String text, int delta, long contactId) {
+        String folded = fold(text);
+        int t = find(field, folded);
+        if (t >= 0) {
+            contactsDelta.merge(t, delta, Integer::sum);
+            return;
+        }
+        String key = field + folded;
+        Added entry = added.get(key);
+        if (entry == null) {
+            entry = new Added(field, text);
+            added.put(key, entry);
+            for (int offset : wordStarts(field, text)) {
+                // The key makes entries of different texts with the same suffix distinct
+                addedEntries.put(folded.substring(offset) + '\0' + key, new AddedEntry(entry, offset == 0));
+            }
+        }
+        entry.contactId = delta > 0 && entry.contacts == 0 ? contactId : 0;
+        entry.contacts += delta;
+    }
+
+    private void recase(byte field, String text) {
+        String folded = fold(text);
+        int t = find(field, folded);
+        if (t >= 0) {
+            recased.put(t, text);
+            return;
+        }
+        Added entry = added.get(field + folded);
+        if (entry != null) {
+            entry.text = text;
+        }
+    }
+
+    // The built text with exactly this field and case-folded value, or -1
+    private int find(byte field, String folded) {
+        for (int e = lowerBound(folded); e < entryText.length; e++) {
+            int t = entryText[e];
+            String text = text(t);
+            if (compare(text, entryOffset[e], folded) != 0) {
+                return -1;
+            }
+            if (entryOffset[e] == 0 && textField[t] == field && text.length() == folded.length()) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    // The first entry whose text, from its word on, is not before the prefix
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = entryText.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(text(entryText[middle]), entryOffset[middle], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private String text(int t) {
+        return new String(textBytes, textStart[t], textStart[t + 1] - textStart[t], StandardCharsets.UTF_8);
+    }
+
+    // Negative if text from offset sorts before prefix, zero if it starts with it, positive otherwise
+    private static int compare(String text, int offset, String prefix) {
+        int length = Math.min(text.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int order = Character.compare(Character.toLowerCase(text.charAt(offset + i)), prefix.charAt(i));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return text.length() - offset < prefix.length() ? -1 : 0;
+    }
+
+    // String.compareTo of left from leftOffset and right from rightOffset, without copying them
+    private static int compareFrom(String left, int leftOffset, String right, int rightOffset) {
+        int length = Math.min(left.length() - leftOffset, right.length() - rightOffset);
+        for (int i = 0; i < length; i++) {
+            int order = Character.compare(left.charAt(leftOffset + i), right.charAt(rightOffset + i));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(left.length() - leftOffset, right.length() - rightOffset);
+    }
+
+    // Case folding char by char, so lengths and offsets match the original text
+    private static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    // Where a completion can be matched from: the start and, except in emails, every later word
+    private static int[] wordStarts(byte field, String text) {
+        if (field == EMAIL) {
+            return new int[]{0};
+        }
+        int[] starts = new int[text.length()];
+        int count = 0;
+        for (int i = 0; i < text.length() && i <= Short.MAX_VALUE; i++) {
+            if (Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))) {
+                starts[count++] = i;
+            }
+        }
+        if (count == 0 || starts[0] != 0) {
+            // Matched from the start even when it does not begin with a word
+            int[] withStart = new int[count + 1];
+            System.arraycopy(starts, 0, withStart, 1, count);
+            return withStart;
+        }
+        return Arrays.copyOf(starts, count);
+    }
+}
@@ -0,0 +1,33 @@
+package com.contactapp.tools;
+
+import com.contactapp.dto.ContactDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A contact as the assistant sees it: every field it can reason about, without photo paths,
+ * timestamps or empty fields. Long notes are shortened.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContactDetails(Long id, String firstName, String lastName, String email, String phone,
+                             String company, String jobTitle, String address, String city, String state,
+                             String zipCode, String country, String notes) {
+
+    private static final int MAX_NOTES_CHARS = 500;
+
+    static ContactDetails of(ContactDTO contact) {
+        return new ContactDetails(contact.getId(), contact.getFirstName(), contact.getLastName(),
+                contact.getEmail(), blankToNull(contact.getPhone()), blankToNull(contact.getCompany()),
+                blankToNull(contact.getJobTitle()), blankToNull(contact.getAddress()),
+                blankToNull(contact.getCity()), blankToNull(contact.getState()),
+                blankToNull(contact.getZipCode()), blankToNull(contact.getCountry()),
+                shorten(blankToNull(contact.getNotes())));
+    }
+
+    static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static String shorten(String notes) {
+        return notes == null || notes.length() <= MAX_NOTES_CHARS ? notes : notes.substring(0, MAX_NOTES_CHARS) + "…";
+    }
+}
@@ -0,0 +1,13 @@
+package com.contactapp.tools;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The getContacts tool's result: contacts in the requested order, {@code missingIds} that do
+ * not exist and {@code omittedIds} that exist but did not fit this call's budget.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContactDetailsBatch(List<ContactDetails> contacts, List<Long> missingIds, List<Long> omittedIds,
+                                  String note) {}
@@ -0,0 +1,13 @@
+package com.contactapp.tools;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * A listing tool's result. {@code total} is the number of matching contacts, when known;
+ * {@code note} tells the model when the result was cut short and how to get the rest.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContactList(List<ContactSummary> contacts, Long total, Boolean hasMore, String nextCursor,
+                          String note) {}
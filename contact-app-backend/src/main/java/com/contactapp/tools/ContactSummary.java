@@ -0,0 +1,18 @@
+package com.contactapp.tools;
+
+import com.contactapp.dto.ContactDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * What the assistant sees of each contact in a listing: enough to answer most questions or to
+ * pick contacts whose details to fetch with getContact/getContacts.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContactSummary(Long id, String name, String email, String phone, String company, String jobTitle) {
+
+    static ContactSummary of(ContactDTO contact) {
+        return new ContactSummary(contact.getId(), contact.getFullName(), contact.getEmail(),
+                ContactDetails.blankToNull(contact.getPhone()), ContactDetails.blankToNull(contact.getCompany()),
+                ContactDetails.blankToNull(contact.getJobTitle()));
+    }
+}
@@ -1,44 +1,130 @@
 package com.contactapp.tools;
 
+import com.contactapp.dto.ContactBatch;
 import com.contactapp.dto.ContactDTO;
+import com.contactapp.dto.CursorPage;
+import com.contactapp.dto.SemanticSearchResult;
+import com.contactapp.service.ContactCursor;
 import com.contactapp.service.ContactService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contact operations for the chat assistant. Every token of a tool result is processed by the
+ * model before it answers, so results are compact projections rather than API DTOs: listings
+ * return {@link ContactSummary summaries}, details come from getContact/getContacts on demand,
+ * and each call's result is cut to {@code contacts.chat.tool-result-budget} tokens with a note
+ * on how to fetch the rest.
+ */
 @Service
 public class ContactTools {
     private static final Logger log = LoggerFactory.getLogger(ContactTools.class);
     private final ContactService contactService;
+    private final ObjectMapper objectMapper;
+    private final int tokenBudget;
+    private final int maxPageSize;
 
-    public ContactTools(ContactService contactService) {
+    // Constructor injection (replacing Lombok @RequiredArgsConstructor)
+    public ContactTools(ContactService contactService, ObjectMapper objectMapper,
+                        @Value("${contacts.chat.tool-result-budget:1500}") int tokenBudget,
+                        @Value("${contacts.chat.tool-max-page-size:50}") int maxPageSize) {
         this.contactService = contactService;
+        this.objectMapper = objectMapper;
+        this.tokenBudget = tokenBudget;
+        this.maxPageSize = maxPageSize;
     }
 
-    @Tool(description = "Get a contact by their unique ID")
-    public ContactDTO getContact(Long id) {
+    @Tool(description = "Get all details of a contact (address, notes, ...) by their unique ID")
+    public ContactDetails getContact(Long id) {
         log.info("Getting contact: {}", id);
         ContactDTO contact = contactService.getContact(id);
         log.info("Contact: {}", contact);
-        return contact;
+        return ContactDetails.of(contact);
+    }
+
+    @Tool(description = "Get all details of several contacts by their unique IDs in one call. Returns the contacts " +
+            "in the requested order, plus missingIds for IDs that do not exist and omittedIds for contacts that " +
+            "did not fit in this result. Prefer this over repeated getContact calls")
+    public ContactDetailsBatch getContacts(List<Long> ids) {
+        log.info("Getting contacts: {}", ids);
+        ContactBatch contacts = contactService.getContacts(ids);
+        log.info("Retrieved {} contacts, missing: {}", contacts.contacts().size(), contacts.missingIds());
+        List<ContactDetails> details = new ArrayList<>();
+        List<Long> omittedIds = new ArrayList<>();
+        int tokens = 0;
+        for (ContactDTO contact : contacts.contacts()) {
+            ContactDetails detail = ContactDetails.of(contact);
+            tokens += tokens(detail);
+            if (!details.isEmpty() && tokens > tokenBudget) {
+                omittedIds.add(contact.getId());
+            } else {
+                details.add(detail);
+            }
+        }
+        if (omittedIds.isEmpty()) {
+            return new ContactDetailsBatch(details, contacts.missingIds(), null, null);
+        }
+        return new ContactDetailsBatch(details, contacts.missingIds(), omittedIds,
+                "Only " + details.size() + " contacts fit in this result; call getContacts again with omittedIds");
     }
 
-    @Tool(description = "Get all contacts with pagination. Returns page results with specified page and size")
-    public Page<ContactDTO> getAllContacts(int page, int size) {
+    @Tool(description = "List contacts in name order, a page at a time. Returns a summary (id, name, email, " +
+            "phone, company, job title) of each contact and the total; use getContact or getContacts for details")
+    public ContactList getAllContacts(int page, int size) {
         log.info("Getting all contacts - page: {}, size: {}", page, size);
-        Page<ContactDTO> contacts = contactService.getAllContacts(page, size);
+        Page<ContactDTO> contacts = contactService.getAllContacts(page, pageSize(size));
         log.info("Retrieved {} contacts", contacts.getNumberOfElements());
-        return contacts;
+        return pageList(contacts, size);
     }
 
-    @Tool(description = "Search contacts by name, email, phone, company, or other fields")
-    public Page<ContactDTO> searchContacts(String searchTerm, int page, int size) {
+    @Tool(description = "List contacts in name order using a cursor. Pass an empty cursor for the first page, " +
+            "then the nextCursor from the previous result to continue. Faster than page numbers for long listings. " +
+            "Returns a summary of each contact; use getContact or getContacts for details")
+    public ContactList getContactsAfterCursor(String cursor, int size) {
+        log.info("Getting contacts after cursor: '{}' - size: {}", cursor, size);
+        CursorPage<ContactDTO> contacts = contactService.getContactsAfter(cursor, pageSize(size));
+        log.info("Retrieved {} contacts, hasNext: {}", contacts.content().size(), contacts.hasNext());
+        List<ContactSummary> summaries = fit(contacts.content());
+        if (summaries.size() < contacts.content().size()) {
+            // Continue after the last contact that fit (fit always keeps at least one)
+            String nextCursor = ContactCursor.of(contacts.content().get(summaries.size() - 1)).encode();
+            return new ContactList(summaries, null, true, nextCursor,
+                    "Only " + summaries.size() + " contacts fit in this result; continue with nextCursor");
+        }
+        return new ContactList(summaries, null, contacts.hasNext(), contacts.nextCursor(), null);
+    }
+
+    @Tool(description = "Search contacts by name, email, phone, company, or other fields. Returns a summary of " +
+            "each match and the number of matches; use getContact or getContacts for details")
+    public ContactList searchContacts(String searchTerm, int page, int size) {
         log.info("Searching contacts with term: '{}' - page: {}, size: {}", searchTerm, page, size);
-        Page<ContactDTO> results = contactService.searchContacts(searchTerm, page, size);
+        Page<ContactDTO> results = contactService.searchContacts(searchTerm, page, pageSize(size));
         log.info("Found {} matching contacts", results.getNumberOfElements());
-        return results;
+        return pageList(results, size);
+    }
+
+    @Tool(description = "Find contacts by what they do, e.g. 'cloud infrastructure' or 'legal advice': matches " +
+            "the meaning of job titles, companies and notes rather than exact words. Returns summaries of the " +
+            "best matches first; use getContact or getContacts for details")
+    public ContactList findContactsByTopic(String topic, int limit) {
+        log.info("Finding contacts by topic: '{}' - limit: {}", topic, limit);
+        SemanticSearchResult result = contactService.semanticSearch(topic, pageSize(limit));
+        log.info("Found {} contacts by topic", result.matches().size());
+        List<ContactSummary> summaries = fit(result.matches().stream().map(SemanticSearchResult.Match::contact).toList());
+        String note = summaries.size() < result.matches().size()
+                ? "Only the best " + summaries.size() + " matches fit in this result"
+                : result.complete() ? null
+                : "The search index is still being built or unavailable; some contacts may be missing";
+        return new ContactList(summaries, null, null, null, note);
     }
 
     @Tool(description = "Delete a contact by their unique ID")
@@ -52,4 +138,43 @@ public class ContactTools {
             throw new RuntimeException("Failed to delete contact: " + e.getMessage(), e);
         }
     }
+
+    private int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+
+    private ContactList pageList(Page<ContactDTO> page, int requestedSize) {
+        List<ContactSummary> summaries = fit(page.getContent());
+        if (summaries.size() < page.getNumberOfElements()) {
+            return new ContactList(summaries, page.getTotalElements(), true, null,
+                    "Only the first " + summaries.size() + " contacts of this page fit in this result; "
+                            + "request pages of size " + summaries.size() + " to see them all");
+        }
+        String note = requestedSize > page.getSize()
+                ? "Pages are limited to " + page.getSize() + " contacts; request the next page for more" : null;
+        return new ContactList(summaries, page.getTotalElements(), page.hasNext(), null, note);
+    }
+
+    // The leading contacts whose summaries fit in the token budget (always at least one)
+    private List<ContactSummary> fit(List<ContactDTO> contacts) {
+        List<ContactSummary> summaries = new ArrayList<>();
+        int tokens = 0;
+        for (ContactDTO contact : contacts) {
+            ContactSummary summary = ContactSummary.of(contact);
+            tokens += tokens(summary);
+            if (!summaries.isEmpty() && tokens > tokenBudget) {
+                break;
+            }
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    private int tokens(Object result) {
+        try {
+            return Tokens.estimate(objectMapper.writeValueAsString(result));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize tool result", e);
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package com.contactapp.tools;
+
+/**
+ * Rough token counts for text sent to or received from the model. The exact count depends on
+ * the model's tokenizer, which is not available in-process; about four characters per token
+ * holds well enough for English text and JSON to size tool results and compare them.
+ */
+public final class Tokens {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private Tokens() {
+    }
+
+    public static int estimate(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
@@ -0,0 +1,79 @@
+package com.contactapp.tools;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reports the tool calls made while the model answers a chat, e.g. as progress events of a
+ * streamed chat. When streaming, tools run on Reactor worker threads rather than the request
+ * thread, so the listener travels in the call's {@link ToolContext} under {@link #LISTENER_KEY}.
+ * Every call is also reported to a fixed recorder, such as {@link ToolUsage}.
+ */
+public final class ToolProgress {
+
+    public static final String LISTENER_KEY = "toolProgressListener";
+
+    /**
+     * One step of a tool call: {@code started}, then {@code finished} or {@code failed}, with the
+     * estimated {@link Tokens tokens} of the arguments and (once finished) the result.
+     */
+    public record Event(String tool, String status, Long durationMillis, Integer inputTokens,
+                        Integer resultTokens) {}
+
+    private ToolProgress() {
+    }
+
+    /**
+     * Wraps {@code callbacks} so that each call reports to {@code recorder} and to the listener
+     * in its tool context.
+     */
+    public static ToolCallback[] reporting(Consumer<Event> recorder, ToolCallback... callbacks) {
+        return Arrays.stream(callbacks).map(callback -> new Reporting(callback, recorder))
+                .toArray(ToolCallback[]::new);
+    }
+
+    private record Reporting(ToolCallback delegate, Consumer<Event> recorder) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public String call(String toolInput, ToolContext toolContext) {
+            Object listener = toolContext == null ? null : toolContext.getContext().get(LISTENER_KEY);
+            Consumer<Event> progress = listener instanceof Consumer<?> ? recorder.andThen((Consumer<Event>) listener)
+                    : recorder;
+            String tool = delegate.getToolDefinition().name();
+            int inputTokens = Tokens.estimate(toolInput);
+            progress.accept(new Event(tool, "started", null, inputTokens, null));
+            long started = System.nanoTime();
+            try {
+                String result = toolContext == null ? delegate.call(toolInput) : delegate.call(toolInput, toolContext);
+                progress.accept(new Event(tool, "finished", (System.nanoTime() - started) / 1_000_000, inputTokens,
+                        Tokens.estimate(result)));
+                return result;
+            } catch (RuntimeException e) {
+                progress.accept(new Event(tool, "failed", (System.nanoTime() - started) / 1_000_000, inputTokens,
+                        null));
+                throw e;
+            }
+        }
+    }
+}
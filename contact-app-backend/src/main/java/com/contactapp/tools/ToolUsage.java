@@ -0,0 +1,59 @@
+package com.contactapp.tools;
+
+import com.contactapp.dto.ToolUsageStats;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Per-tool call counts, estimated argument and result tokens, and time spent, recorded from
+ * {@link ToolProgress} events. Result tokens are what each call adds to the model's context,
+ * so they show which tools make chats slow; stats are at /api/stats/tools.
+ */
+@Component
+public class ToolUsage implements Consumer<ToolProgress.Event> {
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder inputTokens = new LongAdder();
+        final LongAdder resultTokens = new LongAdder();
+        final AtomicLong maxResultTokens = new AtomicLong();
+        final LongAdder millis = new LongAdder();
+    }
+
+    private final Map<String, Counters> tools = new ConcurrentHashMap<>();
+
+    @Override
+    public void accept(ToolProgress.Event event) {
+        if ("started".equals(event.status())) {
+            return;
+        }
+        Counters counters = tools.computeIfAbsent(event.tool(), tool -> new Counters());
+        counters.calls.increment();
+        counters.inputTokens.add(event.inputTokens());
+        counters.millis.add(event.durationMillis());
+        if (event.resultTokens() == null) {
+            counters.failures.increment();
+        } else {
+            counters.resultTokens.add(event.resultTokens());
+            counters.maxResultTokens.accumulateAndGet(event.resultTokens(), Math::max);
+        }
+    }
+
+    public Map<String, ToolUsageStats> stats() {
+        Map<String, ToolUsageStats> stats = new TreeMap<>();
+        tools.forEach((tool, counters) -> {
+            long calls = counters.calls.sum();
+            stats.put(tool, new ToolUsageStats(calls, counters.failures.sum(), counters.inputTokens.sum(),
+                    counters.resultTokens.sum(), counters.maxResultTokens.get(),
+                    calls == 0 ? 0 : counters.resultTokens.sum() / calls, calls == 0 ? 0 : counters.millis.sum() / calls));
+        });
+        return stats;
+    }
+}
@@ -0,0 +1,77 @@
+package com.contactapp.vector;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A deterministic, local stand-in for an embedding model, for tests and for running without
+ * Ollama. Words and their character trigrams are hashed into a fixed number of dimensions
+ * (the "hashing trick"), so texts sharing words or word fragments ("cloud" and "Cloud
+ * Systems", "engineer" and "engineering") get similar vectors. It captures no meaning beyond
+ * that: synonyms are unrelated. Fast and free of external calls.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "at", "for", "i", "in", "is", "of",
+            "on", "or", "the", "to", "who", "with", "do", "know", "my", "me");
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.4f;
+
+    private final int dimensions;
+
+    public HashingEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<Embedding> embeddings = new ArrayList<>();
+        for (String text : request.getInstructions()) {
+            embeddings.add(new Embedding(vector(text), embeddings.size()));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return vector(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    private float[] vector(String text) {
+        float[] vector = new float[dimensions];
+        if (text == null) {
+            return vector;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty() || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            add(vector, "w:" + word, WORD_WEIGHT);
+            String padded = "^" + word + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                add(vector, padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+        }
+        return vector;
+    }
+
+    // Signed feature hashing: collisions between features cancel out on average
+    private void add(float[] vector, String feature, float weight) {
+        int hash = feature.hashCode() * 0x9E3779B1;
+        hash ^= hash >>> 15;
+        vector[Math.floorMod(hash, dimensions)] += (hash & 0x40000000) == 0 ? weight : -weight;
+    }
+}
@@ -0,0 +1,466 @@
+package com.contactapp.vector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest neighbour index over vectors by cosine similarity: a Hierarchical
+ * Navigable Small World graph (Malkov and Yashunin, 2016). Each vector is linked to up to
+ * {@code m} similar vectors per layer (twice that on the bottom layer); sparser upper layers
+ * let a search take long jumps first, so queries visit a few hundred vectors instead of all.
+ * <p>
+ * Vectors are normalized when added, so similarity is a dot product. Removing a vector only
+ * marks it deleted: it is skipped in results but still used to route searches, so the graph
+ * stays well connected. Once many vectors are deleted, {@link #rebuilt()} makes a compact copy.
+ * <p>
+ * Thread-safe: searches run concurrently; adds and removes take a write lock.
+ */
+public class HnswIndex {
+
+    /** A search result: the vector's id and its cosine similarity to the query. */
+    public record Match(long id, float score) {}
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final class Node {
+        final long id;
+        final float[] vector;
+        // links[level] holds the indexes of the linked nodes on that level
+        final int[][] links;
+        boolean deleted;
+
+        Node(long id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[l] = new int[0];
+            }
+        }
+
+        int level() {
+            return links.length - 1;
+        }
+    }
+
+    private record Candidate(int node, float similarity) {}
+
+    private static final Comparator<Candidate> MOST_SIMILAR_FIRST =
+            Comparator.comparingDouble((Candidate c) -> c.similarity).reversed();
+    private static final Comparator<Candidate> LEAST_SIMILAR_FIRST =
+            Comparator.comparingDouble((Candidate c) -> c.similarity);
+
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final SplittableRandom random;
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int entryPoint = -1;
+    private int deleted;
+
+    /**
+     * @param m              links per vector on the upper layers (twice that on the bottom layer);
+     *                       higher improves recall at the cost of memory and insert time
+     * @param efConstruction candidates considered when linking a new vector
+     */
+    public HnswIndex(int dimensions, int m, int efConstruction) {
+        if (dimensions < 1 || m < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.dimensions = dimensions;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(m);
+        // Seeded, so the same inserts build the same graph
+        this.random = new SplittableRandom(42);
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /** Number of searchable vectors. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of removed vectors still kept for routing. */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodeById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Rough heap use of vectors and links, in bytes. */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long links = 0;
+            for (Node node : nodes) {
+                for (int[] level : node.links) {
+                    links += 16 + 4L * level.length;
+                }
+            }
+            return nodes.size() * (64L + 16 + 4L * dimensions) + links + nodeById.size() * 48L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Adds the vector under {@code id}, replacing any vector already stored under it. */
+    public void add(long id, float[] vector) {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            markDeleted(id);
+            insert(id, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes the vector stored under {@code id}; returns whether there was one. */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            return markDeleted(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code k} vectors most similar to {@code query}, best first. {@code ef} is how many
+     * candidates the search keeps (at least {@code k}); higher finds more of the true nearest
+     * neighbours at the cost of latency.
+     */
+    public List<Match> search(float[] query, int k, int ef) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k < 1) {
+                return List.of();
+            }
+            int nearest = entryPoint;
+            for (int level = nodes.get(entryPoint).level(); level > 0; level--) {
+                nearest = closest(normalized, nearest, level);
+            }
+            List<Candidate> candidates = searchLayer(normalized, nearest, Math.max(ef, k), 0);
+            List<Match> matches = new ArrayList<>(k);
+            for (Candidate candidate : candidates) {
+                Node node = nodes.get(candidate.node);
+                if (!node.deleted) {
+                    matches.add(new Match(node.id, candidate.similarity));
+                    if (matches.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The exact {@code k} nearest vectors by scanning every vector; a baseline for recall. */
+    public List<Match> exactSearch(float[] query, int k) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Candidate> best = new PriorityQueue<>(LEAST_SIMILAR_FIRST);
+            for (int i = 0; i < nodes.size(); i++) {
+                if (!nodes.get(i).deleted) {
+                    best.add(new Candidate(i, dot(normalized, nodes.get(i).vector)));
+                    if (best.size() > k) {
+                        best.poll();
+                    }
+                }
+            }
+            List<Candidate> sorted = new ArrayList<>(best);
+            sorted.sort(MOST_SIMILAR_FIRST);
+            return sorted.stream().map(c -> new Match(nodes.get(c.node).id, c.similarity)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** A new index holding only the live vectors, without the deleted ones. */
+    public HnswIndex rebuilt() {
+        List<Node> live;
+        lock.readLock().lock();
+        try {
+            live = nodes.stream().filter(node -> !node.deleted).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        HnswIndex index = new HnswIndex(dimensions, m, efConstruction);
+        for (Node node : live) {
+            index.insert(node.id, node.vector);
+        }
+        return index;
+    }
+
+    /** Writes the whole graph, so {@link #read} restores it without re-inserting. */
+    public void write(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimensions);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(entryPoint);
+            out.writeInt(nodes.size());
+            for (Node node : nodes) {
+                out.writeLong(node.id);
+                out.writeBoolean(node.deleted);
+                for (float value : node.vector) {
+                    out.writeFloat(value);
+                }
+                out.writeInt(node.level());
+                for (int[] links : node.links) {
+                    out.writeInt(links.length);
+                    for (int link : links) {
+                        out.writeInt(link);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static HnswIndex read(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported index format version " + version);
+        }
+        HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+        index.entryPoint = in.readInt();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            boolean deleted = in.readBoolean();
+            float[] vector = new float[index.dimensions];
+            for (int d = 0; d < vector.length; d++) {
+                vector[d] = in.readFloat();
+            }
+            Node node = new Node(id, vector, in.readInt());
+            for (int l = 0; l < node.links.length; l++) {
+                int[] links = new int[in.readInt()];
+                for (int j = 0; j < links.length; j++) {
+                    links[j] = in.readInt();
+                }
+                node.links[l] = links;
+            }
+            node.deleted = deleted;
+            index.nodes.add(node);
+            if (deleted) {
+                index.deleted++;
+            } else {
+                index.nodeById.put(id, i);
+            }
+        }
+        return index;
+    }
+
+    private boolean markDeleted(long id) {
+        Integer existing = nodeById.remove(id);
+        if (existing == null) {
+            return false;
+        }
+        nodes.get(existing).deleted = true;
+        deleted++;
+        return true;
+    }
+
+    private void insert(long id, float[] vector) {
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelFactor);
+        int index = nodes.size();
+        Node node = new Node(id, vector, level);
+        nodes.add(node);
+        nodeById.put(id, index);
+        if (entryPoint < 0) {
+            entryPoint = index;
+            return;
+        }
+
+        int topLevel = nodes.get(entryPoint).level();
+        int nearest = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            nearest = closest(vector, nearest, l);
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(vector, nearest, efConstruction, l);
+            int[] neighbours = selectNeighbours(vector, candidates, m);
+            node.links[l] = neighbours;
+            for (int neighbour : neighbours) {
+                link(neighbour, index, l);
+            }
+            nearest = candidates.get(0).node;
+        }
+        if (level > topLevel) {
+            entryPoint = index;
+        }
+    }
+
+    // Adds a link from node to target, pruning node's links if it now has too many
+    private void link(int node, int target, int level) {
+        Node from = nodes.get(node);
+        int[] links = from.links[level];
+        int[] extended = new int[links.length + 1];
+        System.arraycopy(links, 0, extended, 0, links.length);
+        extended[links.length] = target;
+        int maxLinks = level == 0 ? 2 * m : m;
+        if (extended.length <= maxLinks) {
+            from.links[level] = extended;
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(extended.length);
+        for (int link : extended) {
+            candidates.add(new Candidate(link, dot(from.vector, nodes.get(link).vector)));
+        }
+        candidates.sort(MOST_SIMILAR_FIRST);
+        from.links[level] = selectNeighbours(from.vector, candidates, maxLinks);
+    }
+
+    /**
+     * Picks up to {@code max} of the candidates (most similar first), preferring ones that are
+     * closer to the vector than to any neighbour already picked, so links point in different
+     * directions rather than all into one cluster; then fills up with the closest of the rest.
+     */
+    private int[] selectNeighbours(float[] vector, List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() == max) {
+                break;
+            }
+            float[] candidateVector = nodes.get(candidate.node).vector;
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (dot(candidateVector, nodes.get(chosen.node).vector) > candidate.similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : skipped).add(candidate);
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected.stream().mapToInt(Candidate::node).toArray();
+    }
+
+    // Greedy walk on one layer towards the node most similar to the query
+    private int closest(float[] query, int start, int level) {
+        int current = start;
+        float best = dot(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int link : nodes.get(current).links[level]) {
+                float similarity = dot(query, nodes.get(link).vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = link;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Best-first search on one layer keeping the ef most similar nodes; returns them best first
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        visited.set(start);
+        Candidate first = new Candidate(start, dot(query, nodes.get(start).vector));
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(MOST_SIMILAR_FIRST);
+        PriorityQueue<Candidate> found = new PriorityQueue<>(LEAST_SIMILAR_FIRST);
+        toVisit.add(first);
+        found.add(first);
+        while (!toVisit.isEmpty()) {
+            Candidate current = toVisit.poll();
+            if (current.similarity < found.peek().similarity && found.size() >= ef) {
+                break;
+            }
+            for (int link : nodes.get(current.node).links[level]) {
+                if (visited.get(link)) {
+                    continue;
+                }
+                visited.set(link);
+                float similarity = dot(query, nodes.get(link).vector);
+                if (found.size() < ef || similarity > found.peek().similarity) {
+                    Candidate candidate = new Candidate(link, similarity);
+                    toVisit.add(candidate);
+                    found.add(candidate);
+                    if (found.size() > ef) {
+                        found.poll();
+                    }
+                }
+            }
+        }
+        List<Candidate> result = new ArrayList<>(found);
+        result.sort(MOST_SIMILAR_FIRST);
+        return result;
+    }
+
+    private float[] normalize(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException(
+                    "Expected a vector of " + dimensions + " dimensions, got " + vector.length);
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
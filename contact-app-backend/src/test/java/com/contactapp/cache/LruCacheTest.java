@@ -0,0 +1,54 @@
+package com.contactapp.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LruCache Tests")
+class LruCacheTest {
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full")
+    void testEvictsLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>("test", 2, null);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.getIfPresent(1);
+
+        cache.put(3, "three");
+
+        assertThat(cache.getIfPresent(2)).isNull();
+        assertThat(cache.getIfPresent(1)).isEqualTo("one");
+        assertThat(cache.getIfPresent(3)).isEqualTo("three");
+        CacheStats stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.evictions()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(3);
+        assertThat(stats.misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load only missing keys and not cache a load that raced an invalidation")
+    void testLoadsAndDiscardsRacingLoads() {
+        LruCache<Integer, String> cache = new LruCache<>("test", 10, Duration.ofMinutes(1));
+        cache.put(1, "one");
+
+        Map<Integer, String> values = cache.getAll(List.of(1, 2), missing -> {
+            assertThat(missing).containsExactly(2);
+            return Map.of(2, "two");
+        });
+        assertThat(values).containsOnlyKeys(1, 2);
+
+        String loaded = cache.get(3, key -> {
+            cache.invalidate(1);
+            return "stale";
+        });
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.getIfPresent(3)).isNull();
+    }
+}
@@ -0,0 +1,59 @@
+package com.contactapp.service;
+
+import com.contactapp.exception.ChatOverloadedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ChatLimiter Tests")
+class ChatLimiterTest {
+
+    @Test
+    @DisplayName("Should admit a waiting chat when a slot is released")
+    void testQueuesUntilReleased() throws Exception {
+        ChatLimiter limiter = new ChatLimiter(1, 5, Duration.ofSeconds(10));
+        ChatLimiter.Permit first = limiter.acquire();
+
+        CompletableFuture<ChatLimiter.Permit> second = CompletableFuture.supplyAsync(limiter::acquire);
+        while (limiter.stats().queued() == 0) {
+            Thread.sleep(5);
+        }
+        assertThat(second).isNotDone();
+
+        first.close();
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+
+        assertThat(limiter.stats().admitted()).isEqualTo(2);
+        assertThat(limiter.stats().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject with 429 when the queue is full and 503 when the wait times out")
+    void testRejectsWhenOverloaded() {
+        ChatLimiter limiter = new ChatLimiter(1, 0, Duration.ofMillis(50));
+        try (ChatLimiter.Permit permit = limiter.acquire()) {
+            assertThatThrownBy(limiter::acquire)
+                    .isInstanceOfSatisfying(ChatOverloadedException.class, e -> {
+                        assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                        assertThat(e.getRetryAfter()).isPositive();
+                    });
+        }
+
+        ChatLimiter waiting = new ChatLimiter(1, 5, Duration.ofMillis(50));
+        try (ChatLimiter.Permit permit = waiting.acquire()) {
+            assertThatThrownBy(waiting::acquire)
+                    .isInstanceOfSatisfying(ChatOverloadedException.class,
+                            e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        }
+        assertThat(waiting.stats().timedOut()).isEqualTo(1);
+        assertThat(waiting.stats().queued()).isZero();
+    }
+}
@@ -0,0 +1,49 @@
+package com.contactapp.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChatResponseCache Tests")
+class ChatResponseCacheTest {
+
+    private final ContactDataVersion dataVersion = new ContactDataVersion();
+    private final ChatResponseCache cache = new ChatResponseCache(dataVersion, 10, Duration.ofHours(1));
+
+    @Test
+    @DisplayName("Should serve a repeated prompt regardless of case, spacing and trailing punctuation")
+    void testServesNormalizedRepeats() {
+        cache.put(cache.key("Who works at Tech Corp?"), "Alice and Bob", List.of("searchContacts"));
+
+        assertThat(cache.getIfPresent(cache.key("  who works   at TECH corp "))).isEqualTo("Alice and Bob");
+        assertThat(cache.getIfPresent(cache.key("Who works at Acme?"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should never serve an answer after a contact write")
+    void testWriteRetiresAnswers() {
+        ChatResponseCache.Key before = cache.key("list all contacts");
+        cache.put(before, "3 contacts", List.of("getAllContacts"));
+
+        dataVersion.bumpAfterCommit();
+
+        assertThat(cache.getIfPresent(cache.key("list all contacts"))).isNull();
+        // An answer computed while the write committed is stored under the old version
+        cache.put(before, "3 contacts", List.of("getAllContacts"));
+        assertThat(cache.getIfPresent(cache.key("list all contacts"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not cache answers that deleted a contact or used the date")
+    void testSkipsUncacheableTools() {
+        cache.put(cache.key("delete contact 5"), "Deleted", List.of("getContact", "deleteContact"));
+        cache.put(cache.key("what day is it"), "Friday", List.of("getCurrentDate"));
+
+        assertThat(cache.getIfPresent(cache.key("delete contact 5"))).isNull();
+        assertThat(cache.getIfPresent(cache.key("what day is it"))).isNull();
+    }
+}
@@ -0,0 +1,123 @@
+package com.contactapp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChatSessions Tests")
+class ChatSessionsTest {
+
+    private final ContactDataVersion dataVersion = new ContactDataVersion();
+    private final ChatSessions sessions = new ChatSessions(dataVersion, 2, 2, DataSize.ofKilobytes(64), 3,
+            DataSize.ofMegabytes(1), Duration.ofMinutes(30));
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ToolCallback search = sessions.reusingResults(new CountingTool("searchContacts"))[0];
+
+    @AfterEach
+    void shutdown() {
+        sessions.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should remember the latest turns of a session")
+    void testRemembersLatestTurns() {
+        ChatSessions.Conversation first = sessions.open(null);
+        sessions.recordTurn(first, "Who works at Tech Corp?", "Alice");
+        sessions.recordTurn(sessions.open(first.sessionId()), "Her email?", "alice@example.com");
+        sessions.recordTurn(sessions.open(first.sessionId()), "And her phone?", "555-0100");
+
+        ChatSessions.Conversation next = sessions.open(first.sessionId());
+
+        assertThat(next.sessionId()).isEqualTo(first.sessionId());
+        assertThat(next.turns()).extracting(ChatSessions.Turn::prompt).containsExactly("Her email?", "And her phone?");
+        assertThat(sessions.hasTurns(first.sessionId())).isTrue();
+        assertThat(sessions.hasTurns("unknown")).isFalse();
+        assertThat(sessions.stats().sessions()).isEqualTo(1);
+        assertThat(sessions.open("unknown").sessionId()).isNotEqualTo("unknown");
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated tool call from memory until the data changes")
+    void testReusesToolResults() {
+        ChatSessions.Conversation conversation = sessions.open(null);
+        search.call("{\"searchTerm\":\"alice\"}", context(conversation));
+
+        ChatSessions.Conversation followUp = sessions.open(conversation.sessionId());
+        assertThat(followUp.toolResults()).extracting(ChatSessions.ToolResult::result).containsExactly("result 1");
+        assertThat(search.call("{\"searchTerm\":\"alice\"}", context(followUp))).isEqualTo("result 1");
+        assertThat(calls).hasValue(1);
+
+        dataVersion.bumpAfterCommit();
+
+        ChatSessions.Conversation afterWrite = sessions.open(conversation.sessionId());
+        assertThat(afterWrite.toolResults()).isEmpty();
+        assertThat(search.call("{\"searchTerm\":\"alice\"}", context(afterWrite))).isEqualTo("result 2");
+        assertThat(sessions.stats().toolResultsReused()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used session beyond the session cap")
+    void testEvictsLeastRecentlyUsed() {
+        String first = sessions.open(null).sessionId();
+        String second = sessions.open(null).sessionId();
+        sessions.open(null);
+        sessions.open(first);
+
+        sessions.open(null);
+
+        assertThat(sessions.stats().sessions()).isEqualTo(3);
+        assertThat(sessions.stats().evicted()).isEqualTo(1);
+        assertThat(sessions.open(first).sessionId()).isEqualTo(first);
+        assertThat(sessions.open(second).sessionId()).isNotEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("Should compress large texts and read them back unchanged")
+    void testCompactEncoding() {
+        String json = "{\"contacts\":[" + "{\"id\":1,\"name\":\"Alice Smith\",\"company\":\"Tech Corp\"},".repeat(20) + "]}";
+
+        byte[] encoded = ChatSessions.encode(json);
+
+        assertThat(encoded.length).isLessThan(json.length() / 3);
+        assertThat(ChatSessions.decode(encoded)).isEqualTo(json);
+        assertThat(ChatSessions.decode(ChatSessions.encode("short, über"))).isEqualTo("short, über");
+    }
+
+    private static ToolContext context(ChatSessions.Conversation conversation) {
+        return new ToolContext(Map.of(ChatSessions.CONVERSATION_KEY, conversation));
+    }
+
+    private final class CountingTool implements ToolCallback {
+
+        private final ToolDefinition definition;
+
+        CountingTool(String name) {
+            this.definition = ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return definition;
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return "result " + calls.incrementAndGet();
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            return call(toolInput);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.contactapp.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ContactCursor Tests")
+class ContactCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip a cursor through its opaque encoding")
+    void testRoundTrip() {
+        ContactCursor cursor = new ContactCursor("José", "O'Brien-Smith", 42L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("José").matches("[A-Za-z0-9_-]+");
+        assertThat(ContactCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens that are not valid cursors")
+    void testRejectsMalformedToken() {
+        assertThatThrownBy(() -> ContactCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ContactCursor.decode(new ContactCursor("a", "b", 1L).encode() + "AA"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
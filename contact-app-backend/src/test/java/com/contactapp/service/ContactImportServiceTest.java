@@ -0,0 +1,147 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ImportJobStatus;
+import com.contactapp.dto.ImportJobStatus.Rejection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ContactImportService Tests")
+class ContactImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ContactSemanticIndex semanticIndex = mock(ContactSemanticIndex.class);
+    private final ContactSuggestIndex suggestIndex = mock(ContactSuggestIndex.class);
+    private final ContactImportService service = new ContactImportService(jdbcTemplate,
+            mock(PlatformTransactionManager.class),
+            new ContactRowValidator(Validation.buildDefaultValidatorFactory().getValidator()),
+            new ContactDataVersion(), semanticIndex, suggestIndex, new ObjectMapper(), 2);
+    // Stands in for the contacts table's unique email index
+    private final Set<String> storedEmails = new HashSet<>(Set.of("taken@example.com"));
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should insert valid rows in batches, rejecting invalid, repeated and existing emails")
+    void testImportsInBatches() throws Exception {
+        givenInsertsSkipExistingEmails();
+
+        ImportJobStatus status = importCsv("""
+                firstName,lastName,email
+                Ann,Lee,ann@example.com
+                Ann,Again,ann@example.com
+                Bob,Ray,bob@example.com
+                Dee,,dee@example.com
+                Cy,Doe,cy@example.com
+                Eve,Kim,ann@example.com
+                Fay,Lo,taken@example.com
+                """);
+
+        assertThat(status.state()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(batches).containsExactly(List.of("ann@example.com", "bob@example.com"),
+                List.of("cy@example.com", "ann@example.com"), List.of("taken@example.com"));
+        assertThat(status.rowsRead()).isEqualTo(7);
+        assertThat(status.rowsImported()).isEqualTo(3);
+        assertThat(status.rowsRejected()).isEqualTo(4);
+        assertThat(status.rejections()).containsExactly(
+                new Rejection(2, "Duplicate email: ann@example.com"),
+                new Rejection(4, "lastName: Last name is required"),
+                new Rejection(6, "Email already exists: ann@example.com"),
+                new Rejection(7, "Email already exists: taken@example.com"));
+        verify(suggestIndex, atLeastOnce()).rebuildAfterCommit();
+    }
+
+    @Test
+    @DisplayName("Should not touch the database or the indexes when no row is valid")
+    void testRejectsEverything() throws Exception {
+        givenInsertsSkipExistingEmails();
+
+        ImportJobStatus status = importCsv("""
+                firstName,lastName,email
+                Ann,Lee,not-an-email
+                """);
+
+        assertThat(status.state()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(status.rowsRejected()).isEqualTo(1);
+        assertThat(batches).isEmpty();
+        verify(semanticIndex, never()).resyncAfterCommit();
+        verify(suggestIndex, never()).rebuildAfterCommit();
+    }
+
+    @Test
+    @DisplayName("Should reject a row with an unterminated quote and keep importing the rows after it")
+    void testRejectsOverlongRecord() throws Exception {
+        givenInsertsSkipExistingEmails();
+        StringBuilder csv = new StringBuilder("firstName,lastName,email,notes\n")
+                .append("Ann,Lee,ann@example.com,\n")
+                .append("Bob,Ray,bob@example.com,\"never closed\n");
+        // Enough rows after it that the open quote runs past the record length limit
+        for (int i = 0; i < 3000; i++) {
+            csv.append("Cy,Doe,cy").append(i).append("@example.com,").append("x".repeat(80)).append('\n');
+        }
+
+        ImportJobStatus status = importCsv(csv.toString());
+
+        assertThat(status.state()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(status.rowsRead()).isEqualTo(3002);
+        assertThat(status.rowsImported()).isEqualTo(3001);
+        assertThat(status.rejections()).containsExactly(new Rejection(2,
+                "Row 2 is longer than 262144 characters; is a quoted field missing its closing quote?"));
+    }
+
+    // Answers each batch insert like ON CONFLICT (email) DO NOTHING: 0 for emails already stored
+    private void givenInsertsSkipExistingEmails() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            BatchPreparedStatementSetter setter = invocation.getArgument(1);
+            List<String> emails = new ArrayList<>();
+            PreparedStatement ps = mock(PreparedStatement.class);
+            doAnswer(set -> emails.add(set.getArgument(1))).when(ps).setString(eq(3), any());
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                setter.setValues(ps, i);
+            }
+            batches.add(emails);
+            return emails.stream().mapToInt(email -> storedEmails.add(email) ? 1 : 0).toArray();
+        });
+    }
+
+    private ImportJobStatus importCsv(String csv) throws Exception {
+        ImportJobStatus status = service.submit(ContactFileFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        for (int attempt = 0; attempt < 500; attempt++) {
+            status = service.getStatus(status.id()).orElseThrow();
+            if (status.state() == ImportJobStatus.State.COMPLETED || status.state() == ImportJobStatus.State.FAILED) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Import did not finish: " + status);
+    }
+}
@@ -0,0 +1,93 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.ContactDTO;
+import com.contactapp.repository.ContactRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ContactService Tests")
+class ContactServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ContactService service = new ContactService(mock(ContactRepository.class),
+            mock(ContactCountEstimator.class), mock(ContactCache.class), mock(ContactSearchCache.class),
+            new ContactDataVersion(), mock(PhotoStorage.class), mock(PhotoThumbnails.class),
+            mock(PhotoCleaner.class), mock(ContactSemanticIndex.class), mock(ContactSuggestIndex.class),
+            mock(PlatformTransactionManager.class), objectMapper, jdbcTemplate,
+            Validation.buildDefaultValidatorFactory().getValidator(), "trigram");
+    private String sql;
+    private List<Object> args;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void givenUpdateReturnsContact() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            sql = invocation.getArgument(0);
+            args = Arrays.asList((Object[]) invocation.getRawArguments()[2]);
+            return List.of(ContactDTO.builder().id(1L).firstName("Ann").build());
+        });
+    }
+
+    @Test
+    @DisplayName("Should update only the patched columns, clearing fields set to null")
+    void testPatchesPresentFields() throws Exception {
+        ContactDTO patched = service.patchContact(1L, objectMapper.readTree("""
+                {"company": null, "email": "ann@example.com", "phone": "  "}"""));
+
+        assertThat(patched.getFirstName()).isEqualTo("Ann");
+        assertThat(sql).startsWith("UPDATE contacts c SET company = ?, email = ?, phone = ?, updated_at = now() "
+                + "WHERE c.id = ? RETURNING ");
+        assertThat(args).containsExactly(null, "ann@example.com", null, 1L);
+    }
+
+    @Test
+    @DisplayName("Should reject patches that are not objects or touch server-managed or unknown fields")
+    void testRejectsInvalidPatches() {
+        assertRejected("[]", "Merge patch must be a JSON object");
+        assertRejected("""
+                {"id": 2}""", "Field cannot be patched: id");
+        assertRejected("""
+                {"photoPath": "x.jpg"}""", "Field cannot be patched: photoPath");
+        assertRejected("""
+                {"nickname": "Al"}""", "Unknown field: nickname");
+        assertRejected("""
+                {"company": {"name": "Acme"}}""", "Field company must be a string or null");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should apply the contact's constraints to patched fields")
+    void testValidatesPatchedFields() {
+        assertRejected("""
+                {"firstName": null}""", "firstName: First name is required");
+        assertRejected("""
+                {"email": "not-an-email"}""", "email: Email should be valid");
+        assertRejected("""
+                {"phone": "12"}""", "phone: Phone number should be valid (10-15 digits)");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void assertRejected(String patch, String message) {
+        assertThatThrownBy(() -> service.patchContact(1L, objectMapper.readTree(patch)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(message);
+    }
+}
@@ -0,0 +1,149 @@
+package com.contactapp.service;
+
+import com.contactapp.dto.BulkUpsertResult;
+import com.contactapp.dto.BulkUpsertResult.Outcome;
+import com.contactapp.dto.BulkUpsertResult.Row;
+import com.contactapp.dto.ContactDTO;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ContactUpsertService Tests")
+class ContactUpsertServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ContactCache contactCache = mock(ContactCache.class);
+    private final ContactSuggestIndex suggestIndex = mock(ContactSuggestIndex.class);
+    private final ContactUpsertService service = new ContactUpsertService(jdbcTemplate,
+            new ContactRowValidator(Validation.buildDefaultValidatorFactory().getValidator()), contactCache,
+            new ContactDataVersion(), mock(ContactSemanticIndex.class), suggestIndex, 2, 6);
+    // Stands in for the contacts table: email to id and first name
+    private final Map<String, Long> ids = new HashMap<>(Map.of("bob@example.com", 7L, "cy@example.com", 8L));
+    private final Map<String, String> firstNames = new HashMap<>(Map.of("bob@example.com", "Bob",
+            "cy@example.com", "Cy"));
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void givenContactsTable() throws Exception {
+        doAnswer(invocation -> {
+            List<String[]> arrays = new ArrayList<>();
+            Connection connection = mock(Connection.class);
+            String[] sql = new String[1];
+            when(connection.prepareStatement(anyString())).thenAnswer(prepare -> {
+                sql[0] = prepare.getArgument(0);
+                return mock(PreparedStatement.class);
+            });
+            doAnswer(create -> {
+                arrays.add(create.getArgument(1));
+                return null;
+            }).when(connection).createArrayOf(eq("text"), any());
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+
+            RowCallbackHandler handler = invocation.getArgument(1);
+            if (sql[0].startsWith("SELECT")) {
+                for (String email : arrays.get(0)) {
+                    handler.processRow(row(ids.get(email), email, false));
+                }
+                return null;
+            }
+            // Answers like the upsert: inserted and changed rows are returned, identical ones skipped
+            String[] firstNameColumn = arrays.get(0);
+            String[] emailColumn = arrays.get(2);
+            batchSizes.add(emailColumn.length);
+            for (int i = 0; i < emailColumn.length; i++) {
+                String email = emailColumn[i];
+                boolean created = !ids.containsKey(email);
+                if (created) {
+                    ids.put(email, 100L + ids.size());
+                } else if (firstNames.get(email).equals(firstNameColumn[i])) {
+                    continue;
+                }
+                firstNames.put(email, firstNameColumn[i]);
+                handler.processRow(row(ids.get(email), email, created));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should classify each row as created, updated, unchanged or rejected, in request order")
+    void testClassifiesRows() {
+        BulkUpsertResult result = service.upsert(Arrays.asList(
+                contact("Ann", "ann@example.com"),
+                contact("Bobby", "bob@example.com"),
+                contact("Cy", "cy@example.com"),
+                contact("Ann", "ann@example.com"),
+                contact("", "dee@example.com"),
+                null));
+
+        assertThat(result.rows()).containsExactly(
+                new Row(0, "ann@example.com", Outcome.CREATED, 102L, null),
+                new Row(1, "bob@example.com", Outcome.UPDATED, 7L, null),
+                new Row(2, "cy@example.com", Outcome.UNCHANGED, 8L, null),
+                new Row(3, "ann@example.com", Outcome.REJECTED, null, "Duplicate email: ann@example.com"),
+                new Row(4, "dee@example.com", Outcome.REJECTED, null, "firstName: First name is required"),
+                new Row(5, null, Outcome.REJECTED, null, "Missing contact"));
+        assertThat(result).extracting(BulkUpsertResult::created, BulkUpsertResult::updated,
+                BulkUpsertResult::unchanged, BulkUpsertResult::rejected).containsExactly(1, 1, 1, 3);
+        assertThat(batchSizes).containsExactly(2, 1);
+        verify(contactCache).evictAfterCommit(List.of(7L));
+        verify(suggestIndex).rebuildAfterCommit();
+    }
+
+    @Test
+    @DisplayName("Should leave the indexes alone when every row is unchanged")
+    void testUnchangedOnly() {
+        BulkUpsertResult result = service.upsert(List.of(contact("Bob", "bob@example.com")));
+
+        assertThat(result.rows()).containsExactly(new Row(0, "bob@example.com", Outcome.UNCHANGED, 7L, null));
+        verify(suggestIndex, never()).rebuildAfterCommit();
+    }
+
+    @Test
+    @DisplayName("Should refuse requests over the row limit")
+    void testRowLimit() {
+        List<ContactDTO> contacts = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            contacts.add(contact("Ann", "ann" + i + "@example.com"));
+        }
+
+        assertThatThrownBy(() -> service.upsert(contacts)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At most 6 contacts can be upserted per request");
+    }
+
+    private static ContactDTO contact(String firstName, String email) {
+        return ContactDTO.builder().firstName(firstName).lastName("Lee").email(email).build();
+    }
+
+    private static ResultSet row(Long id, String email, boolean created) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(id);
+        when(rs.getString(2)).thenReturn(email);
+        when(rs.getBoolean(3)).thenReturn(created);
+        return rs;
+    }
+}
@@ -0,0 +1,122 @@
+package com.contactapp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PackFilePhotoStorage Tests")
+class PackFilePhotoStorageTest {
+
+    @TempDir
+    Path root;
+    private PackFilePhotoStorage storage;
+
+    @AfterEach
+    void close() throws IOException {
+        storage.close();
+    }
+
+    @Test
+    @DisplayName("Should store identical uploads once and read each photo back from its pack")
+    void testStoresAndReads() throws IOException {
+        storage = open(DataSize.ofKilobytes(64));
+
+        String first = storage.store(content("same photo"), "me.JPG").path();
+        String second = storage.store(content("same photo"), "copy.jpg").path();
+        String other = storage.store(content("other photo"), "other.png").path();
+
+        assertThat(first).isEqualTo(second).startsWith(PackFilePhotoStorage.PREFIX).endsWith(".jpg");
+        assertThat(storage.isNative(first)).isTrue();
+        assertThat(read(first)).isEqualTo("same photo");
+        assertThat(read(other)).isEqualTo("other photo");
+        assertThat(storage.locate(other)).hasValueSatisfying(location -> {
+            assertThat(location.offset()).isEqualTo("same photo".length());
+            assertThat(location.length()).isEqualTo("other photo".length());
+        });
+        assertThat(packFiles()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should replay stores and deletes from the index log after a restart")
+    void testReplaysIndex() throws IOException {
+        storage = open(DataSize.ofKilobytes(64));
+        String kept = storage.store(content("kept"), "a.jpg").path();
+        String deleted = storage.store(content("deleted"), "b.jpg").path();
+        storage.delete(deleted);
+        storage.close();
+
+        storage = open(DataSize.ofKilobytes(64));
+
+        assertThat(read(kept)).isEqualTo("kept");
+        assertThat(storage.locate(deleted)).isEmpty();
+        assertThatThrownBy(() -> storage.read(deleted)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep reused photos and delete unreferenced ones stored before the cutoff")
+    void testDeleteIfStoredBefore() throws IOException {
+        storage = open(DataSize.ofKilobytes(64));
+        String path = storage.store(content("photo"), "a.jpg").path();
+        Instant beforeReuse = Instant.now();
+        storage.store(content("photo"), "a.jpg");
+
+        assertThat(storage.deleteIfStoredBefore(path, beforeReuse)).isFalse();
+        assertThat(storage.sweep(p -> false, Instant.now().plusSeconds(1))).isEqualTo(1);
+        assertThat(storage.lastStored(path)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should move live photos out of mostly deleted packs and then remove those packs")
+    void testCompaction() throws IOException {
+        // Each pack holds two of these photos
+        storage = open(DataSize.ofBytes(24));
+        String live = storage.store(content("photo-one"), "1.jpg").path();
+        String garbage = storage.store(content("photo-two"), "2.jpg").path();
+        String newest = storage.store(content("photo-333"), "3.jpg").path();
+        storage.delete(garbage);
+        assertThat(packFiles()).isEqualTo(2);
+
+        storage.compact();
+        assertThat(read(live)).isEqualTo("photo-one");
+        storage.compact();
+
+        assertThat(packFiles()).isEqualTo(1);
+        assertThat(read(live)).isEqualTo("photo-one");
+        assertThat(read(newest)).isEqualTo("photo-333");
+    }
+
+    private PackFilePhotoStorage open(DataSize capacity) throws IOException {
+        return new PackFilePhotoStorage(root.toString(), capacity, Duration.ofHours(1), 0.4);
+    }
+
+    private String read(String photoPath) throws IOException {
+        try (InputStream in = storage.read(photoPath)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private long packFiles() throws IOException {
+        try (Stream<Path> files = Files.list(root.resolve("packs"))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".dat")).count();
+        }
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
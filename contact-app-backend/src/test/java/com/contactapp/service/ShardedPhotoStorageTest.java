@@ -0,0 +1,96 @@
+package com.contactapp.service;
+
+import com.contactapp.service.PhotoStorage.StoredPhoto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ShardedPhotoStorage Tests")
+class ShardedPhotoStorageTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    @DisplayName("Should store identical uploads once, at a path sharded by content hash")
+    void testDeduplicatesContent() throws IOException {
+        ShardedPhotoStorage storage = new ShardedPhotoStorage(root.toString());
+
+        StoredPhoto first = storage.store(content("same photo"), "me.JPG");
+        StoredPhoto second = storage.store(content("same photo"), "copy.jpg");
+        StoredPhoto other = storage.store(content("other photo"), "other.png");
+
+        Path stored = Paths.get(first.path());
+        String name = stored.getFileName().toString();
+        assertThat(second.path()).isEqualTo(first.path());
+        assertThat(second.originalFileName()).isEqualTo("copy.jpg");
+        assertThat(name).matches("[0-9a-f]{64}\\.jpg");
+        assertThat(stored.getParent()).isEqualTo(root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)));
+        assertThat(storage.isNative(first.path())).isTrue();
+        assertThat(other.path()).isNotEqualTo(first.path()).endsWith(".png");
+        assertThat(Files.readString(stored)).isEqualTo("same photo");
+        assertThat(files()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should mark a reused photo as just stored so pending deletions keep it")
+    void testReuseRefreshesLastStored() throws IOException {
+        ShardedPhotoStorage storage = new ShardedPhotoStorage(root.toString());
+        String path = storage.store(content("photo"), "a.jpg").path();
+        Instant hourAgo = Instant.now().minus(Duration.ofHours(1));
+        Files.setLastModifiedTime(Paths.get(path), FileTime.from(hourAgo.minusSeconds(60)));
+
+        storage.store(content("photo"), "b.jpg");
+
+        assertThat(storage.lastStored(path)).hasValueSatisfying(stored -> assertThat(stored).isAfter(hourAgo));
+        assertThat(storage.deleteIfStoredBefore(path, hourAgo)).isFalse();
+        assertThat(Files.exists(Paths.get(path))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should store the photo again after its file was deleted")
+    void testStoresAgainAfterDelete() throws IOException {
+        ShardedPhotoStorage storage = new ShardedPhotoStorage(root.toString());
+        String path = storage.store(content("photo"), "a.jpg").path();
+        assertThat(storage.deleteIfStoredBefore(path, Instant.now().plusSeconds(1))).isTrue();
+
+        assertThat(storage.store(content("photo"), "a.jpg").path()).isEqualTo(path);
+        assertThat(Files.readString(Paths.get(path))).isEqualTo("photo");
+    }
+
+    @Test
+    @DisplayName("Should sweep only old unreferenced photos")
+    void testSweep() throws IOException {
+        ShardedPhotoStorage storage = new ShardedPhotoStorage(root.toString());
+        String kept = storage.store(content("kept"), "a.jpg").path();
+        String orphan = storage.store(content("orphan"), "b.jpg").path();
+
+        assertThat(storage.sweep(kept::equals, Instant.now().minusSeconds(60))).isZero();
+        assertThat(storage.sweep(kept::equals, Instant.now().plusSeconds(1))).isEqualTo(1);
+        assertThat(storage.lastStored(kept)).isPresent();
+        assertThat(storage.lastStored(orphan)).isEmpty();
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long files() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.contactapp.suggest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Build time, memory and completion latency of {@link CompletionIndex} on synthetic contacts
+ * like those of api-test/search-benchmark.sql. Not run by the test suite:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.contactapp.suggest.CompletionIndexBenchmark 1000000
+ * </pre>
+ */
+public class CompletionIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris"};
+    private static final String[] COMPANIES = {"Tech Corp", "Cloud Systems", "Data Insights", "Legal Associates",
+            "Design Studios", "Green Energy", "City Hospital", "First Bank", "Retail Group", "Media House",
+            "Logistics Inc", "BioLabs", "Edu Partners", "Food Works", "Build Co"};
+    private static final String[] PREFIXES = {"j", "jo", "joh", "john", "john s", "m", "mar", "smi", "contact1",
+            "contact12", "contact1234", "contact123456@", "tech", "cloud", "corp", "b", "bu", "zz", "q", "x"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(7);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long started = System.nanoTime();
+        CompletionIndex.Builder builder = new CompletionIndex.Builder();
+        for (int i = 1; i <= count; i++) {
+            builder.add(i, pick(random, FIRST_NAMES), pick(random, LAST_NAMES), "contact" + i + "@example.com",
+                    random.nextInt(10) == 0 ? null : pick(random, COMPANIES) + " " + random.nextInt(2000));
+        }
+        CompletionIndex index = builder.build();
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+        builder = null;
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("Built %d contacts, %d completions in %d ms: ~%d MB estimated, %d MB heap%n", count,
+                index.completions(), buildMillis, index.estimatedBytes() >> 20, (heapAfter - heapBefore) >> 20);
+
+        for (int warmup = 0; warmup < 20_000; warmup++) {
+            index.complete(PREFIXES[warmup % PREFIXES.length], 8);
+        }
+        System.out.printf("%-16s %10s %10s%n", "prefix", "p50 us", "p99 us");
+        for (String prefix : PREFIXES) {
+            long[] nanos = new long[1000];
+            for (int q = 0; q < nanos.length; q++) {
+                started = System.nanoTime();
+                index.complete(prefix, 8);
+                nanos[q] = System.nanoTime() - started;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("%-16s %10.1f %10.1f%n", prefix, nanos[nanos.length / 2] / 1000.0,
+                    nanos[nanos.length * 99 / 100] / 1000.0);
+        }
+
+        started = System.nanoTime();
+        for (int i = 1; i <= 10_000; i++) {
+            index.update(i, pick(random, FIRST_NAMES), "Changed", "changed" + i + "@example.com", "New Co " + i);
+        }
+        System.out.printf("Applied 10000 updates in %d ms, ~%d MB estimated%n",
+                (System.nanoTime() - started) / 1_000_000, index.estimatedBytes() >> 20);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,63 @@
+package com.contactapp.suggest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CompletionIndex Tests")
+class CompletionIndexTest {
+
+    private final CompletionIndex index = new CompletionIndex.Builder()
+            .add(1, "John", "Doe", "john.doe@example.com", "Tech Corp")
+            .add(2, "Jane", "Johnson", "jane@example.com", "Tech Corp")
+            .add(3, "Bob", "Smith", "bob@techstart.io", "TechStart")
+            .build();
+
+    @Test
+    @DisplayName("Should complete names, emails and companies from any word start, whole texts first")
+    void testCompletesPrefixes() {
+        assertThat(texts(index.complete("jo", 10))).containsExactly("John Doe", "john.doe@example.com", "Jane Johnson");
+        assertThat(texts(index.complete("DOE", 10))).containsExactly("John Doe");
+        assertThat(texts(index.complete("tech", 10))).containsExactly("Tech Corp", "TechStart");
+        assertThat(texts(index.complete("corp", 10))).containsExactly("Tech Corp");
+        assertThat(texts(index.complete("example", 10))).isEmpty();
+        assertThat(index.complete("tech", 1)).containsExactly(new CompletionIndex.Completion("Tech Corp", "company", 2, null));
+        assertThat(index.complete("bob", 10)).contains(new CompletionIndex.Completion("Bob Smith", "name", 1, 3L));
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals, applying the same change twice only once")
+    void testUpdates() {
+        index.update(2, "Jane", "Johnson", "jane@example.com", "Acme");
+        index.update(2, "Jane", "Johnson", "jane@example.com", "Acme");
+        index.update(4, "Alice", "Tech", "alice@acme.com", "Acme");
+        index.remove(1);
+        index.remove(1);
+
+        assertThat(index.complete("tech", 10)).containsExactly(
+                new CompletionIndex.Completion("TechStart", "company", 1, 3L),
+                new CompletionIndex.Completion("Alice Tech", "name", 1, 4L));
+        assertThat(index.complete("acme", 10)).containsExactly(new CompletionIndex.Completion("Acme", "company", 2, null));
+        assertThat(texts(index.complete("jo", 10))).containsExactly("Jane Johnson");
+        assertThat(index.changedContacts()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should show the latest casing after a case-only edit")
+    void testCaseOnlyUpdates() {
+        index.update(1, "John", "Doe", "john.doe@example.com", "TECH CORP");
+        index.update(2, "Jane", "Johnson", "jane@example.com", "TECH CORP");
+        index.update(4, "Alice", "Tech", "alice@acme.com", "acme");
+        index.update(4, "Alice", "Tech", "alice@acme.com", "Acme");
+
+        assertThat(index.complete("tech", 1)).containsExactly(new CompletionIndex.Completion("TECH CORP", "company", 2, null));
+        assertThat(index.complete("acme", 10)).containsExactly(new CompletionIndex.Completion("Acme", "company", 1, 4L));
+    }
+
+    private static List<String> texts(List<CompletionIndex.Completion> completions) {
+        return completions.stream().map(CompletionIndex.Completion::text).toList();
+    }
+}
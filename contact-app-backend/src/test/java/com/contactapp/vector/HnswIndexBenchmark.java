@@ -0,0 +1,108 @@
+package com.contactapp.vector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency and recall of {@link HnswIndex} against exact (brute force) search, on synthetic
+ * contact texts embedded with {@link HashingEmbeddingModel}. Not run by the test suite:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) com.contactapp.vector.HnswIndexBenchmark 100000
+ * </pre>
+ */
+public class HnswIndexBenchmark {
+
+    private static final String[] TITLES = {"Software Engineer", "DevOps Engineer", "Data Scientist",
+            "Product Manager", "Sales Director", "Senior Attorney", "Cloud Architect", "UX Designer",
+            "Marketing Lead", "Financial Analyst", "Site Reliability Engineer", "Recruiter", "CTO",
+            "Nurse Practitioner", "Accountant", "Security Engineer", "Teacher", "Chef", "Architect"};
+    private static final String[] COMPANIES = {"Tech Corp", "Cloud Systems", "Data Insights", "Legal Associates",
+            "Design Studios", "Green Energy", "City Hospital", "First Bank", "Retail Group", "Media House",
+            "Logistics Inc", "BioLabs", "Edu Partners", "Food Works", "Build Co"};
+    private static final String[] NOTES = {"Kubernetes and infrastructure automation", "machine learning models",
+            "contract law and compliance", "user research and prototyping", "enterprise sales",
+            "met at the conference", "renewable energy projects", "hospital operations", "tax planning",
+            "mobile app development", "penetration testing", "supply chain", "hiring pipeline",
+            "menu design", "building permits", "quarterly reporting", "on-call rotation", "data pipelines"};
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queries = 200;
+        int k = 10;
+        Random random = new Random(7);
+        HashingEmbeddingModel model = new HashingEmbeddingModel(384);
+
+        long started = System.nanoTime();
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vectors.add(model.embed(pick(random, TITLES) + ". " + pick(random, COMPANIES) + ". "
+                    + pick(random, NOTES) + ", " + pick(random, NOTES)));
+        }
+        System.out.printf("Embedded %d contacts in %d ms%n", count, millisSince(started));
+
+        started = System.nanoTime();
+        HnswIndex index = new HnswIndex(384, 16, 100);
+        for (int i = 0; i < count; i++) {
+            index.add(i, vectors.get(i));
+        }
+        System.out.printf("Built index in %d ms, ~%d MB%n", millisSince(started), index.estimatedBytes() >> 20);
+
+        started = System.nanoTime();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes));
+        long written = millisSince(started);
+        started = System.nanoTime();
+        HnswIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        System.out.printf("Saved %d MB in %d ms, loaded in %d ms%n", bytes.size() >> 20, written, millisSince(started));
+
+        List<float[]> queryVectors = new ArrayList<>();
+        // Many synthetic contacts share a text, so ties are common: a match counts when it scores
+        // at least as high as the k-th exact match
+        double[] kthScores = new double[queries];
+        long[] exactNanos = new long[queries];
+        for (int q = 0; q < queries; q++) {
+            float[] query = model.embed(pick(random, NOTES) + " " + pick(random, TITLES));
+            queryVectors.add(query);
+            started = System.nanoTime();
+            List<HnswIndex.Match> matches = index.exactSearch(query, k);
+            exactNanos[q] = System.nanoTime() - started;
+            kthScores[q] = matches.get(matches.size() - 1).score() - 1e-5;
+        }
+        System.out.printf("%-12s %10s %10s %10s%n", "search", "p50 us", "p99 us", "recall@" + k);
+        report("exact", exactNanos, 1.0);
+        for (int ef : new int[]{16, 32, 64, 128, 256}) {
+            long[] nanos = new long[queries];
+            int found = 0;
+            for (int q = 0; q < queries; q++) {
+                started = System.nanoTime();
+                List<HnswIndex.Match> matches = index.search(queryVectors.get(q), k, ef);
+                nanos[q] = System.nanoTime() - started;
+                double kthScore = kthScores[q];
+                found += (int) matches.stream().filter(match -> match.score() >= kthScore).count();
+            }
+            report("hnsw ef=" + ef, nanos, found / (double) (queries * k));
+        }
+    }
+
+    private static void report(String name, long[] nanos, double recall) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-12s %10d %10d %10.3f%n", name, sorted[sorted.length / 2] / 1000,
+                sorted[sorted.length * 99 / 100] / 1000, recall);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long millisSince(long started) {
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+}
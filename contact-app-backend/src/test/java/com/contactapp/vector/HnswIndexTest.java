@@ -0,0 +1,88 @@
+package com.contactapp.vector;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HnswIndex Tests")
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    @DisplayName("Should find nearly all true nearest neighbours")
+    void testRecall() {
+        Random random = new Random(1);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100);
+        for (long id = 0; id < 5000; id++) {
+            index.add(id, randomVector(random));
+        }
+
+        int found = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            List<Long> exact = index.exactSearch(query, 10).stream().map(HnswIndex.Match::id).toList();
+            found += (int) index.search(query, 10, 64).stream().filter(m -> exact.contains(m.id())).count();
+        }
+
+        assertThat(found / (double) (queries * 10)).isGreaterThan(0.9);
+    }
+
+    @Test
+    @DisplayName("Should replace and remove vectors by id")
+    void testReplaceAndRemove() {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        Random random = new Random(2);
+        for (long id = 0; id < 200; id++) {
+            index.add(id, randomVector(random));
+        }
+        float[] target = randomVector(random);
+
+        index.add(7, target);
+        assertThat(index.search(target, 1, 32).get(0).id()).isEqualTo(7);
+        assertThat(index.search(target, 1, 32).get(0).score()).isGreaterThan(0.99f);
+
+        assertThat(index.remove(7)).isTrue();
+        assertThat(index.search(target, 5, 32)).extracting(HnswIndex.Match::id).doesNotContain(7L);
+        assertThat(index.size()).isEqualTo(199);
+        assertThat(index.deletedCount()).isEqualTo(2);
+        assertThat(index.rebuilt().deletedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should return the same results after being written and read back")
+    void testPersistence() throws Exception {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        Random random = new Random(3);
+        for (long id = 0; id < 500; id++) {
+            index.add(id, randomVector(random));
+        }
+        index.remove(10);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes));
+
+        HnswIndex restored = HnswIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        float[] query = randomVector(random);
+        assertThat(restored.search(query, 10, 32)).isEqualTo(index.search(query, 10, 32));
+        assertThat(restored.size()).isEqualTo(499);
+        assertThat(restored.contains(10)).isFalse();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react'
-import { getAllContacts, searchContacts, createContact, updateContact, deleteContact, Contact } from './api/contactsApi'
+import { getAllContacts, searchContactsSlice, createContact, updateContact, deleteContact, Contact } from './api/contactsApi'
 import { ContactForm, ContactList, ContactDetail } from './components/ContactComponents'
 import { Button } from './components/ui/Button'
 import { Input } from './components/ui/Input'
@@ -15,6 +15,7 @@ import { Plus, Search } from 'lucide-react'
 const App: React.FC = () => {
   const [contacts, setContacts] = useState<Contact[]>([])
   const [totalPages, setTotalPages] = useState(0)
+  const [hasNextPage, setHasNextPage] = useState(false)
   const [currentPage, setCurrentPage] = useState(0)
   const [isLoading, setIsLoading] = useState(false)
   const [searchQuery, setSearchQuery] = useState('')
@@ -29,11 +30,18 @@ const App: React.FC = () => {
   const loadContacts = async () => {
     try {
       setIsLoading(true)
-      const response = searchQuery
-        ? await searchContacts(searchQuery, currentPage, 10)
-        : await getAllContacts(currentPage, 10)
-      setContacts(response.data.content)
-      setTotalPages(response.data.totalPages)
+      // Searches run on every keystroke, so skip the server-side COUNT(*) for them
+      if (searchQuery) {
+        const response = await searchContactsSlice(searchQuery, currentPage, 10)
+        setContacts(response.data.content)
+        setHasNextPage(response.data.hasNext)
+        setTotalPages(0)
+      } else {
+        const response = await getAllContacts(currentPage, 10)
+        setContacts(response.data.content)
+        setTotalPages(response.data.totalPages)
+        setHasNextPage(currentPage < response.data.totalPages - 1)
+      }
     } catch (error) {
       console.error('Failed to load contacts:', error)
     } finally {
@@ -154,7 +162,7 @@ const App: React.FC = () => {
         </div>
 
         {/* Pagination */}
-        {totalPages > 1 && (
+        {(currentPage > 0 || hasNextPage) && (
           <div className="mt-4 flex justify-center gap-2">
             <Button
               variant="outline"
@@ -164,12 +172,12 @@ const App: React.FC = () => {
               Previous
             </Button>
             <span className="px-4 py-2 text-sm font-medium">
-              Page {currentPage + 1} of {totalPages}
+              {totalPages > 0 ? `Page ${currentPage + 1} of ${totalPages}` : `Page ${currentPage + 1}`}
             </span>
             <Button
               variant="outline"
-              onClick={() => setCurrentPage(Math.min(totalPages - 1, currentPage + 1))}
-              disabled={currentPage >= totalPages - 1}
+              onClick={() => setCurrentPage(currentPage + 1)}
+              disabled={!hasNextPage}
             >
               Next
             </Button>
@@ -25,6 +25,8 @@ export interface Contact {
   notes?: string
   photoPath?: string
   photoFileName?: string
+  photoUrl?: string
+  thumbnailUrl?: string
   createdAt?: string
   updatedAt?: string
 }
@@ -37,6 +39,15 @@ export interface ContactsResponse {
   size: number
 }
 
+// Count-free page (count=false): hasNext instead of exact totals
+export interface ContactsSliceResponse {
+  content: Contact[]
+  number: number
+  size: number
+  hasNext: boolean
+  approximateTotal: number | null
+}
+
 // Get all contacts with pagination
 export const getAllContacts = (page: number = 0, size: number = 10) => {
   return api.get<ContactsResponse>('/contacts', {
@@ -51,6 +62,20 @@ export const searchContacts = (searchTerm: string, page: number = 0, size: numbe
   })
 }
 
+// Get a page of contacts without the server running COUNT(*)
+export const getContactsSlice = (page: number = 0, size: number = 10) => {
+  return api.get<ContactsSliceResponse>('/contacts', {
+    params: { page, size, count: false },
+  })
+}
+
+// Search contacts without the server running COUNT(*)
+export const searchContactsSlice = (searchTerm: string, page: number = 0, size: number = 10) => {
+  return api.get<ContactsSliceResponse>('/contacts/search', {
+    params: { searchTerm, page, size, count: false },
+  })
+}
+
 // Get contact by ID
 export const getContact = (id: number) => {
   return api.get<Contact>(`/contacts/${id}`)
@@ -86,6 +111,25 @@ export const updateContact = (id: number, contact: Contact, photoFile?: File) =>
   })
 }
 
+// Change individual fields (JSON Merge Patch); null clears a field
+export const patchContact = (id: number, changes: Partial<Contact>) => {
+  return api.patch<Contact>(`/contacts/${id}`, changes, {
+    headers: {
+      'Content-Type': 'application/merge-patch+json',
+    },
+  })
+}
+
+// Absolute URL for a contact's photo; photo URLs are versioned, so the browser caches them indefinitely
+export const getPhotoSrc = (contact: Contact) => {
+  return contact.photoUrl ? `${API_BASE_URL}${contact.photoUrl}` : undefined
+}
+
+// Small variant of the photo, for avatars in lists
+export const getThumbnailSrc = (contact: Contact) => {
+  return contact.thumbnailUrl ? `${API_BASE_URL}${contact.thumbnailUrl}` : undefined
+}
+
 // Delete contact
 export const deleteContact = (id: number) => {
   return api.delete(`/contacts/${id}`)
@@ -11,7 +11,7 @@ import {
   DialogTrigger,
 } from './ui/Dialog'
 import { Plus, Edit, Trash2, Eye } from 'lucide-react'
-import { Contact } from '../api/contactsApi'
+import { Contact, getThumbnailSrc } from '../api/contactsApi'
 
 interface ContactFormProps {
   contact?: Contact
@@ -253,7 +253,21 @@ export const ContactList: React.FC<ContactListProps> = ({
             contacts.map((contact) => (
               <tr key={contact.id} className="hover:bg-gray-50">
                 <td className="px-6 py-4 whitespace-nowrap text-sm font-medium text-gray-900">
-                  {contact.firstName} {contact.lastName}
+                  <div className="flex items-center gap-3">
+                    {contact.thumbnailUrl ? (
+                      <img
+                        src={getThumbnailSrc(contact)}
+                        alt=""
+                        loading="lazy"
+                        className="w-8 h-8 rounded-full object-cover"
+                      />
+                    ) : (
+                      <div className="w-8 h-8 rounded-full bg-gray-200" />
+                    )}
+                    <span>
+                      {contact.firstName} {contact.lastName}
+                    </span>
+                  </div>
                 </td>
                 <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-600">
                   {contact.email}
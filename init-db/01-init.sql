@@ -39,5 +39,5 @@ VALUES
 -- Create index for faster email lookups
 CREATE INDEX IF NOT EXISTS idx_email ON contacts(email);
 
--- Create index for faster name searches
-CREATE INDEX IF NOT EXISTS idx_name ON contacts(first_name, last_name);
+-- Create index for name ordering and keyset pagination on (first_name, last_name, id)
+CREATE INDEX IF NOT EXISTS idx_name ON contacts(first_name, last_name, id);
@@ -0,0 +1,35 @@
+-- Search indexes for Contact App
+-- Substring search (contacts.search.mode=trigram) matches against a lower-cased
+-- search_text column so Postgres can serve LIKE '%term%' from a pg_trgm GIN
+-- index instead of scanning the whole table.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Name, email, phone and company in one lower-cased haystack. Not mapped on the
+-- Contact entity: only the native search query reads it.
+-- Maintained by a trigger rather than GENERATED ALWAYS AS: a generated column
+-- (or an UPDATE OF column list on the trigger) pins the types of the columns it
+-- reads, which makes Hibernate's schema update (ddl-auto=update) fail when it
+-- adjusts their lengths.
+ALTER TABLE contacts ADD COLUMN IF NOT EXISTS search_text TEXT;
+-- Convert the column if an earlier version of this script created it as generated
+ALTER TABLE contacts ALTER COLUMN search_text DROP EXPRESSION IF EXISTS;
+
+CREATE OR REPLACE FUNCTION contacts_search_text() RETURNS trigger AS $$
+BEGIN
+    NEW.search_text := LOWER(NEW.first_name || ' ' || NEW.last_name || E'\n' || NEW.email || E'\n'
+                             || COALESCE(NEW.phone, '') || E'\n' || COALESCE(NEW.company, ''));
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_contacts_search_text ON contacts;
+CREATE TRIGGER trg_contacts_search_text
+    BEFORE INSERT OR UPDATE ON contacts
+    FOR EACH ROW EXECUTE FUNCTION contacts_search_text();
+
+-- Backfill rows inserted before the trigger existed
+UPDATE contacts SET first_name = first_name WHERE search_text IS NULL;
+
+-- Trigram index used by LIKE '%term%' and word_similarity() ranking
+CREATE INDEX IF NOT EXISTS idx_contacts_search_trgm ON contacts USING GIN (search_text gin_trgm_ops);
@@ -0,0 +1,34 @@
+-- Full-text search for Contact App
+-- Word search (contacts.search.mode=fulltext, or mode=fulltext on a request)
+-- matches prefix queries such as 'cloud:* & eng:*' against a weighted tsvector
+-- served by a GIN index, and ranks matches with ts_rank.
+
+-- Words of the name (weight A), company and job title (B), city (C) and notes
+-- (D), so a match in the name ranks above one in the notes. The 'simple'
+-- configuration lower-cases words without stemming them or dropping stop words:
+-- names and companies are not English words, and prefix queries already match
+-- "engineer" to "engineering". Not mapped on the Contact entity.
+-- Maintained by a trigger rather than GENERATED ALWAYS AS, for the same reason
+-- as search_text (see 02-search-indexes.sql).
+ALTER TABLE contacts ADD COLUMN IF NOT EXISTS search_document tsvector;
+
+CREATE OR REPLACE FUNCTION contacts_search_document() RETURNS trigger AS $$
+BEGIN
+    NEW.search_document :=
+        setweight(to_tsvector('simple', NEW.first_name || ' ' || NEW.last_name), 'A')
+        || setweight(to_tsvector('simple', COALESCE(NEW.company, '') || ' ' || COALESCE(NEW.job_title, '')), 'B')
+        || setweight(to_tsvector('simple', COALESCE(NEW.city, '')), 'C')
+        || setweight(to_tsvector('simple', COALESCE(NEW.notes, '')), 'D');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_contacts_search_document ON contacts;
+CREATE TRIGGER trg_contacts_search_document
+    BEFORE INSERT OR UPDATE ON contacts
+    FOR EACH ROW EXECUTE FUNCTION contacts_search_document();
+
+-- Backfill rows inserted before the trigger existed
+UPDATE contacts SET first_name = first_name WHERE search_document IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_contacts_search_document ON contacts USING GIN (search_document);